@@ -0,0 +1,27 @@
+package com.pocscanner.bench;
+
+/**
+ * 基准测试共用的测试数据
+ */
+public final class BenchData {
+    private BenchData() {
+    }
+
+    /**
+     * 生成约size个字符的HTML页面（中英文混合），不包含任何常见的漏洞指示器
+     */
+    public static String html(int size) {
+        StringBuilder html = new StringBuilder(size + 256);
+        html.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>管理后台</title>\n")
+            .append("<link rel=\"stylesheet\" href=\"/static/css/app.css\">\n</head>\n<body>\n<div class=\"container\">\n");
+        int row = 0;
+        while (html.length() < size - 64) {
+            html.append("<tr><td class=\"id\">").append(row).append("</td><td>用户").append(row)
+                .append("</td><td><a href=\"/user/view?id=").append(row).append("\">查看详情</a></td>")
+                .append("<td>last login: 2024-01-01 12:00:00 from 10.0.0.").append(row % 255).append("</td></tr>\n");
+            row++;
+        }
+        html.append("</div>\n</body>\n</html>\n");
+        return html.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.pocscanner.bench;
+
+import com.pocscanner.http.CharsetSniffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 字符编码检测：旧实现（整个响应体按UTF-8解码、每次编译正则）与CharsetSniffer（只看开头、预编译）的对比。
+ * 页面在<head>中声明GBK编码，后面是指定大小的正文。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharsetSniffingBenchmark {
+    private static final String CONTENT_TYPE = "text/html";
+
+    @Param({"16384", "1048576"})
+    public int bodySize;
+
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html>\n<head>\n<title>测试页面</title>\n")
+            .append("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=gbk\">\n")
+            .append("</head>\n<body>\n");
+        while (html.length() < bodySize / 2) {
+            html.append("<p>正文内容 content line ").append(html.length()).append("</p>\n");
+        }
+        html.append("</body>\n</html>\n");
+        body = html.toString().getBytes("GBK");
+    }
+
+    @Benchmark
+    public Charset legacy() {
+        return Charset.forName(legacyDetect(CONTENT_TYPE, body));
+    }
+
+    @Benchmark
+    public Charset sniffer() {
+        return CharsetSniffer.detect(CONTENT_TYPE, body, body.length);
+    }
+
+    // 修改前HttpClient中的检测逻辑（只保留HTML分支）
+    private static String legacyDetect(String contentType, byte[] bytes) {
+        String charset = "UTF-8";
+        Matcher matcher = Pattern.compile("charset=([^;]+)").matcher(contentType);
+        if (matcher.find()) {
+            charset = matcher.group(1).trim().toUpperCase();
+        }
+        if (contentType.contains("text/html") || contentType.contains("application/xhtml+xml")) {
+            String tempHtml = new String(bytes, StandardCharsets.UTF_8);
+            Pattern[] metaPatterns = {
+                Pattern.compile("<meta[^>]*charset=[\"']([^\"'>]+)[\"'][^>]*>", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("<meta[^>]*content=[\"'][^\"']*charset=([^\"'>]+)[\"'][^>]*>", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("<meta\\s+http-equiv=[\"']Content-Type[\"'][^>]*content=[\"'][^\"']*charset=([^\"'>]+)[\"'][^>]*>", Pattern.CASE_INSENSITIVE)
+            };
+            for (Pattern metaPattern : metaPatterns) {
+                Matcher metaMatcher = metaPattern.matcher(tempHtml);
+                if (metaMatcher.find()) {
+                    String detected = metaMatcher.group(1).trim().toUpperCase();
+                    if (Charset.isSupported(detected)) {
+                        charset = detected;
+                        break;
+                    }
+                }
+            }
+        }
+        return charset;
+    }
+}
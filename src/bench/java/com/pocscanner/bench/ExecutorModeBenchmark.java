@@ -0,0 +1,99 @@
+package com.pocscanner.bench;
+
+import com.pocscanner.core.ScannerEngine;
+import com.pocscanner.core.TargetSource;
+import com.pocscanner.core.model.POCConfig;
+import com.pocscanner.core.model.ScanResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比固定线程池和虚拟线程两种执行模式：对本地模拟服务器（固定延迟）执行完整的目标 × POC 扫描。
+ * 在JDK 21以下运行时virtual模式会回退到线程池，两组结果应基本相同。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutorModeBenchmark {
+    private static final int TARGETS = 20;
+    private static final int POCS = 20;
+    private static final long LATENCY_MS = 20;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"50", "400"})
+    public int concurrency;
+
+    private MockServer server;
+    private ScannerEngine engine;
+    private List<String> targets;
+    private List<POCConfig> pocs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new MockServer(LATENCY_MS, "<html><body>ok</body></html>");
+
+        engine = new ScannerEngine(null);
+        engine.setThreadCount(concurrency);
+        engine.setMaxConcurrencyPerHost(concurrency); // 所有目标都在127.0.0.1上
+        engine.setKeepAlive(true);
+        if ("virtual".equals(executor) && !engine.setVirtualThreads(true)) {
+            System.out.println("当前JVM不支持虚拟线程，virtual模式回退到线程池");
+        }
+
+        targets = new ArrayList<>();
+        for (int i = 0; i < TARGETS; i++) {
+            targets.add(server.baseUrl() + "/app" + i);
+        }
+        pocs = new ArrayList<>();
+        for (int i = 0; i < POCS; i++) {
+            pocs.add(createPoc(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public long scanMatrix() {
+        return engine.scanStreaming(TargetSource.fromList(targets), pocs, NO_OP_LISTENER);
+    }
+
+    private static POCConfig createPoc(int index) {
+        POCConfig poc = new POCConfig();
+        poc.setName("bench-" + index);
+        POCConfig.Request request = new POCConfig.Request();
+        request.setMethod("GET");
+        request.setPath("/poc/" + index);
+        poc.setRequest(request);
+        POCConfig.Response response = new POCConfig.Response();
+        response.setSuccessIndicators(Collections.singletonList("vulnerable"));
+        poc.setResponse(response);
+        return poc;
+    }
+
+    private static final ScannerEngine.ScanListener NO_OP_LISTENER = new ScannerEngine.ScanListener() {
+        @Override
+        public void onLog(String message) {
+        }
+
+        @Override
+        public void onProgress(int progress) {
+        }
+
+        @Override
+        public void onResult(ScanResult result) {
+        }
+    };
+}
@@ -0,0 +1,116 @@
+package com.pocscanner.bench;
+
+import com.pocscanner.core.POCLoader;
+import com.pocscanner.core.model.POCConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * POCLoader.loadPOCsFromDirectory加载生成的10000个POC文件（contains/equals/regex三种匹配类型轮换，
+ * 部分带请求头、参数和请求体）。加载时每个POC输出一行日志，测量期间丢弃标准输出。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class POCLoaderBenchmark {
+    private static final int POC_COUNT = 10_000;
+    private static final String[] MATCH_TYPES = {"contains", "equals", "regex"};
+
+    private Path directory;
+    private POCLoader loader;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("poc-bench");
+        for (int i = 0; i < POC_COUNT; i++) {
+            Files.write(directory.resolve(String.format("poc-%05d.yaml", i)),
+                    generate(i).getBytes(StandardCharsets.UTF_8));
+        }
+        loader = new POCLoader();
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<POCConfig> loadDirectory() {
+        List<POCConfig> pocs = loader.loadPOCsFromDirectory(directory.toString());
+        if (pocs.size() != POC_COUNT) {
+            throw new IllegalStateException("只加载了 " + pocs.size() + " 个POC");
+        }
+        return pocs;
+    }
+
+    private static String generate(int index) {
+        String matchType = MATCH_TYPES[index % MATCH_TYPES.length];
+        StringBuilder yaml = new StringBuilder(512);
+        yaml.append("name: Generated POC ").append(index).append('\n')
+            .append("description: 生成的测试POC，编号").append(index).append('\n')
+            .append("level: ").append(index % 4 == 0 ? "高" : "中").append('\n')
+            .append("author: bench\n")
+            .append("request:\n")
+            .append("  method: ").append(index % 5 == 0 ? "POST" : "GET").append('\n')
+            .append("  path: /app").append(index % 100).append("/api/item\n");
+        if (index % 2 == 0) {
+            yaml.append("  headers:\n")
+                .append("    User-Agent: Mozilla/5.0\n")
+                .append("    X-Forwarded-For: 127.0.0.1\n");
+        }
+        if (index % 3 == 0) {
+            yaml.append("  params:\n")
+                .append("    id: \"").append(index).append("' OR '1'='1\"\n")
+                .append("    debug: \"true\"\n");
+        }
+        if (index % 5 == 0) {
+            yaml.append("  body: \"username=admin&password=admin").append(index).append("\"\n");
+        }
+        yaml.append("response:\n")
+            .append("  matchType: ").append(matchType).append('\n');
+        if ("regex".equals(matchType)) {
+            yaml.append("  regexMode: find\n");
+        }
+        yaml.append("  statusCode: 200\n")
+            .append("  successIndicators:\n");
+        if ("regex".equals(matchType)) {
+            yaml.append("    - \"root:[x*]:0:0\"\n")
+                .append("    - \"uid=\\\\d+\\\\(root\\\\)\"\n")
+                .append("    - \"token-").append(index).append("-[0-9a-f]{8}\"\n");
+        } else {
+            yaml.append("    - \"root:x:0:0\"\n")
+                .append("    - \"marker-").append(index).append("\"\n");
+        }
+        yaml.append("  errorIndicators:\n")
+            .append("    - \"404 Not Found\"\n")
+            .append("    - \"Access Denied\"\n");
+        return yaml.toString();
+    }
+}
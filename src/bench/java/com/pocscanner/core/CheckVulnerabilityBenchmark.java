@@ -0,0 +1,88 @@
+package com.pocscanner.core;
+
+import com.pocscanner.bench.BenchData;
+import com.pocscanner.core.model.POCConfig;
+import com.pocscanner.http.HttpResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POCEngine.checkVulnerability：5个成功指示器、3个错误指示器的常见POC，响应体为64KB的HTML页面。
+ * decoded先解码响应体再逐个匹配字符串；byteLevel与扫描时相同，先用IndicatorMatcher在未解码的字节上匹配
+ * （regex无法按字节匹配，两者相同）。每次调用创建新的HttpResponse，解码开销计入结果。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckVulnerabilityBenchmark {
+    private static final int BODY_SIZE = 64 * 1024;
+    private static final List<String> SUCCESS = Arrays.asList(
+            "root:x:0:0", "uid=0(root)", "[boot loader]", "Warning: include(", "phpinfo()");
+    private static final List<String> SUCCESS_REGEX = Arrays.asList(
+            "root:[x*]:0:0", "uid=\\d+\\(root\\)", "\\[boot loader\\]", "Warning: include\\(", "phpinfo\\(\\)");
+    private static final List<String> ERRORS = Arrays.asList("404 Not Found", "Access Denied", "Request Rejected");
+
+    @Param({"contains", "regex"})
+    public String matchType;
+
+    // true时响应体末尾包含一个成功指示器，错误指示器也需要全部检查
+    @Param({"false", "true"})
+    public boolean vulnerable;
+
+    private POCEngine engine;
+    private POCConfig poc;
+    private IndicatorMatcher matcher;
+    private byte[] body;
+    private Map<String, List<String>> headers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new POCEngine();
+        poc = new POCConfig();
+        poc.setName("lfi-bench");
+        POCConfig.Response response = new POCConfig.Response();
+        response.setMatchType(matchType);
+        if ("regex".equals(matchType)) {
+            response.setRegexMode("find");
+        }
+        response.setStatusCode(200);
+        response.setSuccessIndicators("regex".equals(matchType) ? SUCCESS_REGEX : SUCCESS);
+        response.setErrorIndicators(ERRORS);
+        poc.setResponse(response);
+        matcher = IndicatorMatcher.of(poc);
+
+        String html = BenchData.html(BODY_SIZE);
+        if (vulnerable) {
+            html = html.replace("</body>", "<pre>uid=0(root) gid=0(root)</pre>\n</body>");
+        }
+        body = html.getBytes(StandardCharsets.UTF_8);
+        headers = Collections.singletonMap("Content-Type", Collections.singletonList("text/html; charset=utf-8"));
+    }
+
+    @Benchmark
+    public boolean decoded() {
+        return engine.checkVulnerability(poc, newResponse(), null);
+    }
+
+    @Benchmark
+    public boolean byteLevel() {
+        HttpResponse response = newResponse();
+        Boolean verdict = matcher != null
+                ? matcher.matches(response.getRawBody(), response.getRawBodyLength(), response.getCharset())
+                : null;
+        return engine.checkVulnerability(poc, response, verdict);
+    }
+
+    private HttpResponse newResponse() {
+        return new HttpResponse(200, body, body.length, StandardCharsets.UTF_8, headers, 0);
+    }
+}
@@ -0,0 +1,51 @@
+package com.pocscanner.core;
+
+import com.pocscanner.bench.BenchData;
+import com.pocscanner.core.model.POCConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POCEngine.matchIndicator在解码后的响应体上按各匹配类型查找一个不存在的指示器（需要扫描整个响应体的最坏情况）。
+ * regex使用POC中常见的“关键字 + 任意字符 + 关键字”形式。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchIndicatorBenchmark {
+    @Param({"contains", "equals", "regex-fullmatch", "regex-find", "regex-re2"})
+    public String matchType;
+
+    @Param({"16384", "262144"})
+    public int bodySize;
+
+    private POCEngine engine;
+    private POCConfig.Response rule;
+    private String body;
+    private String indicator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new POCEngine();
+        rule = new POCConfig.Response();
+        indicator = "root:x:0:0";
+        if (matchType.startsWith("regex")) {
+            rule.setMatchType("regex");
+            rule.setRegexMode(matchType.equals("regex-fullmatch") ? "fullmatch" : "find");
+            rule.setRegexEngine(matchType.equals("regex-re2") ? "re2" : "jdk");
+            indicator = matchType.equals("regex-fullmatch") ? "(?s).*root:[^:]*:0:0.*" : "root:[^:]*:0:0";
+        } else {
+            rule.setMatchType(matchType);
+        }
+        body = BenchData.html(bodySize);
+    }
+
+    @Benchmark
+    public boolean match() {
+        return engine.matchIndicator(body, indicator, rule);
+    }
+}
@@ -0,0 +1,46 @@
+package com.pocscanner.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POCEngine.buildFullUrl：每个目标 × POC都会调用一次。
+ * 放在core包中以便直接调用包内可见的方法。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBuildBenchmark {
+    private POCEngine engine;
+    private Map<String, String> params;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new POCEngine();
+        params = new LinkedHashMap<>();
+        params.put("id", "1' OR '1'='1");
+        params.put("file", "../../../../etc/passwd");
+        params.put("callback", "http://127.0.0.1:8080/cb?x=1&y=2");
+    }
+
+    @Benchmark
+    public String pathOnly() {
+        return engine.buildFullUrl("https://example.com/", "admin/login.php", null);
+    }
+
+    @Benchmark
+    public String bareHost() {
+        return engine.buildFullUrl("192.168.1.10:8080", "/api/v1/users", null);
+    }
+
+    @Benchmark
+    public String withParams() {
+        return engine.buildFullUrl("https://example.com", "/index.php", params);
+    }
+}
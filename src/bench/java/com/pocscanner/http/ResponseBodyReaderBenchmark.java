@@ -0,0 +1,83 @@
+package com.pocscanner.http;
+
+import com.pocscanner.bench.BenchData;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.Okio;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HttpClient读取响应体的路径：ResponseBodyReader解压（gzip/deflate）并读入字节数组，
+ * 同时用CharsetSniffer根据Content-Type和开头的内容检测字符集。响应体来自内存，不包含网络开销。
+ * 放在http包中以便直接使用包内可见的ResponseBodyReader。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBodyReaderBenchmark {
+    private static final MediaType HTML = MediaType.get("text/html");
+
+    @Param({"identity", "gzip", "deflate"})
+    public String encoding;
+
+    @Param({"16384", "1048576"})
+    public int bodySize;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] body = BenchData.html(bodySize).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = "gzip".equals(encoding) ? new GZIPOutputStream(buffer)
+                : "deflate".equals(encoding) ? new DeflaterOutputStream(buffer) : buffer) {
+            out.write(body);
+        }
+        encoded = buffer.toByteArray();
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        ResponseBodyReader reader = new ResponseBodyReader(0, null,
+                (prefix, length) -> CharsetSniffer.detect("text/html", prefix, length));
+        reader.read(new BytesBody(encoded), "identity".equals(encoding) ? null : encoding);
+        return reader.getLength();
+    }
+
+    // 直接从字节数组读取的响应体，避免ResponseBody.create复制数据
+    private static final class BytesBody extends ResponseBody {
+        private final byte[] bytes;
+
+        private BytesBody(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return HTML;
+        }
+
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public BufferedSource source() {
+            return Okio.buffer(Okio.source(new ByteArrayInputStream(bytes)));
+        }
+    }
+}
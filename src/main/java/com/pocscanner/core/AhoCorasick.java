@@ -0,0 +1,155 @@
+package com.pocscanner.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 字节级Aho-Corasick多模式匹配：所有模式编译成一个确定自动机，一遍扫描找出全部命中的模式，
+ * 扫描时间只与数据长度有关，与模式数量无关。
+ * 字母表按模式中出现过的字节压缩，转移表大小为 状态数 × (不同字节数 + 1)。
+ * 扫描可以分段进行：把上一段返回的状态传给下一段，跨段的模式也能找到。
+ */
+final class AhoCorasick {
+    static final int START = 0;
+
+    private final int[] byteClass = new int[256]; // 字节到字母表编号，0表示未在任何模式中出现
+    private final int classCount;
+    private final int[] transitions; // state * classCount + class
+    private final int[][] outputs; // 到达该状态时命中的模式编号，没有时为null
+    private final int patternCount;
+
+    /**
+     * @param patterns 模式列表，编号即下标；为null的模式永远不会命中
+     */
+    AhoCorasick(byte[][] patterns) {
+        this.patternCount = patterns.length;
+        int classes = 1;
+        for (byte[] pattern : patterns) {
+            if (pattern == null) {
+                continue;
+            }
+            for (byte b : pattern) {
+                if (byteClass[b & 0xff] == 0) {
+                    byteClass[b & 0xff] = classes++;
+                }
+            }
+        }
+        this.classCount = classes;
+
+        // 构建字典树
+        List<int[]> rows = new ArrayList<>();
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        rows.add(newRow());
+        stateOutputs.add(null);
+        for (int id = 0; id < patterns.length; id++) {
+            if (patterns[id] == null) {
+                continue;
+            }
+            int state = START;
+            for (byte b : patterns[id]) {
+                int c = byteClass[b & 0xff];
+                if (rows.get(state)[c] < 0) {
+                    rows.get(state)[c] = rows.size();
+                    rows.add(newRow());
+                    stateOutputs.add(null);
+                }
+                state = rows.get(state)[c];
+            }
+            addOutput(stateOutputs, state, id);
+        }
+
+        // 按广度优先计算失败链接，并把缺失的转移补全为确定自动机
+        int[] fail = new int[rows.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] root = rows.get(START);
+        for (int c = 0; c < classCount; c++) {
+            if (root[c] < 0) {
+                root[c] = START;
+            } else {
+                fail[root[c]] = START;
+                queue.add(root[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = rows.get(state);
+            int[] failRow = rows.get(fail[state]);
+            List<Integer> inherited = stateOutputs.get(fail[state]);
+            if (inherited != null) {
+                for (int id : inherited) {
+                    addOutput(stateOutputs, state, id);
+                }
+            }
+            for (int c = 0; c < classCount; c++) {
+                if (row[c] < 0) {
+                    row[c] = failRow[c];
+                } else {
+                    fail[row[c]] = failRow[c];
+                    queue.add(row[c]);
+                }
+            }
+        }
+
+        this.transitions = new int[rows.size() * classCount];
+        this.outputs = new int[rows.size()][];
+        for (int state = 0; state < rows.size(); state++) {
+            System.arraycopy(rows.get(state), 0, transitions, state * classCount, classCount);
+            List<Integer> ids = stateOutputs.get(state);
+            if (ids != null) {
+                outputs[state] = ids.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * 扫描data的[from, to)，把命中的模式在hits中标记为true
+     *
+     * @param state 起始状态，第一段传START，后续各段传上一段的返回值
+     * @return 扫描结束时的状态
+     */
+    int scan(byte[] data, int from, int to, int state, boolean[] hits) {
+        if (state == START && outputs[START] != null) {
+            // 空模式在任何位置都命中
+            mark(outputs[START], hits);
+        }
+        int[] table = transitions;
+        int[] classes = byteClass;
+        int width = classCount;
+        for (int i = from; i < to; i++) {
+            state = table[state * width + classes[data[i] & 0xff]];
+            if (outputs[state] != null) {
+                mark(outputs[state], hits);
+            }
+        }
+        return state;
+    }
+
+    private static void mark(int[] ids, boolean[] hits) {
+        for (int id : ids) {
+            hits[id] = true;
+        }
+    }
+
+    private int[] newRow() {
+        int[] row = new int[classCount];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static void addOutput(List<List<Integer>> stateOutputs, int state, int id) {
+        List<Integer> ids = stateOutputs.get(state);
+        if (ids == null) {
+            ids = new ArrayList<>();
+            stateOutputs.set(state, ids);
+        }
+        if (!ids.contains(id)) {
+            ids.add(id);
+        }
+    }
+}
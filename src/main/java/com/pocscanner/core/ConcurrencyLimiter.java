@@ -0,0 +1,88 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.ScanResult;
+
+/**
+ * 自适应并发控制（AIMD）：根据观测到的响应时间和超时情况调整允许的并发请求数。
+ * 未出现拥塞前每完成一个请求上限加1（慢启动），之后每轮约加1；
+ * 出现超时或响应时间明显高于基线时按比例缩小，每轮最多缩小一次。
+ */
+public class ConcurrencyLimiter {
+    private static final double DECREASE_FACTOR = 0.7; // 超时后的缩小比例
+    private static final double SLOW_DECREASE_FACTOR = 0.9; // 响应变慢后的缩小比例
+    private static final double LATENCY_TOLERANCE = 2.0; // 超过基线延迟的倍数视为拥塞
+    private static final long LATENCY_SLACK_MS = 50; // 小于该值的延迟波动忽略不计
+    private static final double BASELINE_DRIFT = 0.01; // 基线延迟向上漂移的速度
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private boolean slowStart = true;
+    private double baselineLatency = -1;
+    private long samples;
+    private long lastDecreaseSample = -1; // 上次缩小时的样本数，-1表示还没有缩小过
+    private long timeouts;
+
+    public ConcurrencyLimiter(int minLimit, int maxLimit, int initialLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    // 根据扫描结果更新上限；连接失败等与拥塞无关的错误不计入
+    public synchronized void onResult(ScanResult result) {
+        if (result == null) {
+            return;
+        }
+        if (result.isTimedOut()) {
+            onTimeout();
+        } else if (result.getStatusCode() != null) {
+            onLatency(result.getResponseTime());
+        }
+    }
+
+    public synchronized void onTimeout() {
+        samples++;
+        timeouts++;
+        decrease(DECREASE_FACTOR);
+    }
+
+    public synchronized void onLatency(long latencyMs) {
+        samples++;
+        if (baselineLatency < 0 || latencyMs < baselineLatency) {
+            baselineLatency = latencyMs;
+        } else {
+            baselineLatency += (latencyMs - baselineLatency) * BASELINE_DRIFT;
+        }
+
+        if (latencyMs > baselineLatency * LATENCY_TOLERANCE + LATENCY_SLACK_MS) {
+            decrease(SLOW_DECREASE_FACTOR);
+        } else if (slowStart) {
+            limit = Math.min(maxLimit, limit + 1);
+        } else {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    // 同一轮（约等于当前上限个请求）内只缩小一次，避免一批超时把上限压到最低；第一次拥塞立即缩小
+    private void decrease(double factor) {
+        slowStart = false;
+        if (lastDecreaseSample >= 0 && samples - lastDecreaseSample < limit) {
+            return;
+        }
+        lastDecreaseSample = samples;
+        limit = Math.max(minLimit, limit * factor);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+}
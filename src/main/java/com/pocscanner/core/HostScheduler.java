@@ -0,0 +1,201 @@
+package com.pocscanner.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按主机调度扫描任务：在各主机之间轮转取任务，并限制每个主机同时进行的请求数，
+ * 避免全部线程压在同一台服务器上。启用自适应模式后，每个主机的上限由
+ * ConcurrencyLimiter根据该主机的响应时间和超时情况在1到maxPerHost之间调整。
+ * 任务按需生成（每个目标只保存一个POC集合游标），不会一次性展开整个目标 × POC 矩阵；
+ * 请求相同的POC组成一个集合，每个目标上只作为一个任务提交。
+ * 该类不是线程安全的，只应在扫描调度线程中使用。
+ */
+public class HostScheduler {
+    private final List<POCSet> pocSets;
+    private final int maxPerHost;
+    private final Map<String, HostState> hosts = new HashMap<>();
+    private final Deque<HostState> ready = new ArrayDeque<>(); // 仍有待提交任务的主机，轮转使用
+    private final Map<ScanTask, TargetCursor> running = new IdentityHashMap<>(); // 已提交未完成的任务
+    private int activeTargets; // 尚未全部完成的目标数
+    private int inFlight;
+    private boolean adaptive;
+    private int maxStreamsPerConnection; // 大于0时，已协商HTTP/2的主机使用该值作为并发上限
+
+    public HostScheduler(List<POCSet> pocSets, int maxPerHost) {
+        this.pocSets = pocSets;
+        this.maxPerHost = Math.max(1, maxPerHost);
+    }
+
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * HTTP/2下同一主机的请求共用一个连接多路复用，
+     * 主机首次返回h2响应后，其并发上限改为每连接最大流数
+     */
+    public void setMaxStreamsPerConnection(int maxStreamsPerConnection) {
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+    }
+
+    public void addTarget(String target) {
+        if (pocSets.isEmpty()) {
+            return;
+        }
+        String host = hostOf(target);
+        HostState state = hosts.get(host);
+        if (state == null) {
+            state = new HostState(host, adaptive ? new ConcurrencyLimiter(1, maxPerHost, 1) : null);
+            hosts.put(host, state);
+        }
+        if (state.pending.isEmpty()) {
+            ready.add(state);
+        }
+        state.pending.add(new TargetCursor(target));
+        activeTargets++;
+    }
+
+    /**
+     * 取下一个可提交的任务，优先轮转到其他主机；
+     * 所有有待提交任务的主机都已达到并发上限时返回null
+     */
+    public ScanTask next() {
+        for (int i = ready.size(); i > 0; i--) {
+            HostState state = ready.poll();
+            if (state.inFlight >= limitOf(state)) {
+                ready.add(state);
+                continue;
+            }
+
+            TargetCursor cursor = state.pending.peek();
+            ScanTask task = new ScanTask(cursor.target, state.host, pocSets.get(cursor.nextSet++));
+            cursor.inFlight++;
+            if (cursor.nextSet >= pocSets.size()) {
+                state.pending.poll();
+            }
+            if (!state.pending.isEmpty()) {
+                ready.add(state);
+            }
+            state.inFlight++;
+            inFlight++;
+            running.put(task, cursor);
+            return task;
+        }
+        return null;
+    }
+
+    // 任务完成后调用，释放该主机的并发名额
+    public void complete(ScanTask task) {
+        TargetCursor cursor = running.remove(task);
+        HostState state = hosts.get(task.getHost());
+        if (cursor == null || state == null) {
+            return;
+        }
+        state.inFlight--;
+        inFlight--;
+        if (maxStreamsPerConnection > 0 && !state.multiplexed && task.getResult() != null
+                && "h2".equals(task.getResult().getProtocol())) {
+            state.multiplexed = true;
+            if (state.limiter != null) {
+                state.limiter = new ConcurrencyLimiter(1, maxStreamsPerConnection, state.limiter.getLimit());
+            }
+        }
+        if (state.limiter != null) {
+            state.limiter.onResult(task.getResult());
+        }
+
+        if (--cursor.inFlight == 0 && cursor.nextSet >= pocSets.size()) {
+            activeTargets--;
+        }
+        if (state.inFlight == 0 && state.pending.isEmpty()) {
+            hosts.remove(state.host);
+        }
+    }
+
+    public boolean isIdle() {
+        return ready.isEmpty() && inFlight == 0;
+    }
+
+    public int getActiveTargets() {
+        return activeTargets;
+    }
+
+    public int getActiveHosts() {
+        return hosts.size();
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    private int limitOf(HostState state) {
+        if (state.limiter != null) {
+            return state.limiter.getLimit();
+        }
+        return state.multiplexed ? maxStreamsPerConnection : maxPerHost;
+    }
+
+    // 提取目标的主机名（不含协议、端口和路径），同一主机的不同端口共享并发上限
+    public static String hostOf(String target) {
+        String host = target;
+        int schemeEnd = host.indexOf("://");
+        if (schemeEnd >= 0) {
+            host = host.substring(schemeEnd + 3);
+        }
+        int pathStart = indexOfAny(host, "/?#");
+        if (pathStart >= 0) {
+            host = host.substring(0, pathStart);
+        }
+        int userInfoEnd = host.lastIndexOf('@');
+        if (userInfoEnd >= 0) {
+            host = host.substring(userInfoEnd + 1);
+        }
+        if (host.startsWith("[")) {
+            // IPv6地址
+            int end = host.indexOf(']');
+            return end > 0 ? host.substring(0, end + 1).toLowerCase() : host.toLowerCase();
+        }
+        int portStart = host.indexOf(':');
+        if (portStart >= 0) {
+            host = host.substring(0, portStart);
+        }
+        return host.toLowerCase();
+    }
+
+    private static int indexOfAny(String s, String chars) {
+        for (int i = 0; i < s.length(); i++) {
+            if (chars.indexOf(s.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class HostState {
+        private final String host;
+        private final Deque<TargetCursor> pending = new ArrayDeque<>(); // 还有POC未提交的目标
+        private ConcurrencyLimiter limiter; // 非自适应模式下为null
+        private boolean multiplexed; // 是否已协商HTTP/2
+        private int inFlight;
+
+        private HostState(String host, ConcurrencyLimiter limiter) {
+            this.host = host;
+            this.limiter = limiter;
+        }
+    }
+
+    private static class TargetCursor {
+        private final String target;
+        private int nextSet;
+        private int inFlight;
+
+        private TargetCursor(String target) {
+            this.target = target;
+        }
+    }
+}
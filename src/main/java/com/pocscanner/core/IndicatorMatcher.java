@@ -0,0 +1,304 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.POCConfig;
+import com.pocscanner.http.BodyInspector;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个或一组POC的成功/错误指示器的字节级匹配。所有contains指示器按响应体的字符集编码后编译进一个
+ * Aho-Corasick自动机，一遍扫描未解码的响应体即可得到每个POC的结论，不匹配的响应无需解码成字符串。
+ * 只用于UTF-8和单字节字符集；GBK、UTF-16等字符集中指示器的字节可能出现在字符中间，由调用方回退到字符串匹配。
+ */
+final class IndicatorMatcher {
+    // 单个POC的匹配器，POC加载时编译，POC对象被回收后自动移除
+    private static final Map<POCConfig.Response, IndicatorMatcher> MATCHERS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Rule[] rules;
+    // 按字符集缓存编译结果
+    private final ConcurrentHashMap<Charset, Compiled> compiled = new ConcurrentHashMap<>();
+
+    private IndicatorMatcher(Rule[] rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 返回POC的匹配器，首次调用时编译；没有响应规则的POC返回null
+     */
+    static IndicatorMatcher of(POCConfig poc) {
+        if (poc.getResponse() == null) {
+            return null;
+        }
+        return MATCHERS.computeIfAbsent(poc.getResponse(), response -> new IndicatorMatcher(new Rule[]{new Rule(response)}));
+    }
+
+    /**
+     * POC加载时调用：编译匹配器并预先生成UTF-8下的自动机
+     */
+    static void precompile(POCConfig poc) {
+        IndicatorMatcher matcher = of(poc);
+        if (matcher != null) {
+            matcher.compiledFor(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 发送相同请求的一组POC共用的匹配器，一遍扫描得到每个POC的结论，结果顺序与pocs相同
+     */
+    static IndicatorMatcher forPocs(List<POCConfig> pocs) {
+        if (pocs.size() == 1 && of(pocs.get(0)) != null) {
+            // 单个POC直接使用加载时已编译的匹配器
+            return of(pocs.get(0));
+        }
+        Rule[] rules = new Rule[pocs.size()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = new Rule(pocs.get(i).getResponse());
+        }
+        IndicatorMatcher matcher = new IndicatorMatcher(rules);
+        matcher.compiledFor(StandardCharsets.UTF_8);
+        return matcher;
+    }
+
+    /**
+     * 检查每个POC的指示器：至少匹配一个成功指示器（未配置时不要求），且不匹配任何错误指示器。
+     * 字符集不支持字节匹配或POC使用regex时，对应位置为null，由调用方用字符串匹配。
+     */
+    Boolean[] matchAll(byte[] body, int length, Charset charset) {
+        Boolean[] verdicts = new Boolean[rules.length];
+        Compiled compiled = compiledFor(charset);
+        if (compiled == null) {
+            return verdicts;
+        }
+        boolean[] hits = new boolean[compiled.automaton.getPatternCount()];
+        if (hits.length > 0) {
+            compiled.automaton.scan(body, 0, length, AhoCorasick.START, hits);
+        }
+        for (int i = 0; i < rules.length; i++) {
+            switch (rules[i].mode) {
+                case CONTAINS:
+                    verdicts[i] = compiled.verdict(i, hits);
+                    break;
+                case EQUALS:
+                    verdicts[i] = compiled.equalsVerdict(i, body, length);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return verdicts;
+    }
+
+    // 单个POC的结论，见matchAll
+    Boolean matches(byte[] body, int length, Charset charset) {
+        return matchAll(body, length, charset)[0];
+    }
+
+    /**
+     * 读取响应体时增量扫描的检查器：每个POC都出现了错误指示器，或找到成功指示器且没有配置错误指示器时结论已确定。
+     * 只有全部POC都使用contains时才能提前判断，否则返回null。每个请求使用一个新实例。
+     */
+    BodyInspector newInspector() {
+        for (Rule rule : rules) {
+            if (rule.mode != Mode.CONTAINS || (rule.success.isEmpty() && rule.errors.isEmpty())) {
+                return null;
+            }
+        }
+        return new BodyInspector() {
+            private int state = AhoCorasick.START;
+            private boolean[] hits;
+
+            @Override
+            public boolean inspect(byte[] data, int start, int end, Charset charset) {
+                Compiled compiled = compiledFor(charset);
+                if (compiled == null) {
+                    return false;
+                }
+                if (hits == null) {
+                    hits = new boolean[compiled.automaton.getPatternCount()];
+                }
+                // 自动机状态在两次读取之间保留，跨越两段数据的指示器也能找到
+                state = compiled.automaton.scan(data, start, end, state, hits);
+                for (int i = 0; i < rules.length; i++) {
+                    if (!compiled.decided(i, hits)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    private Compiled compiledFor(Charset charset) {
+        if (charset == null || !supportsByteMatching(charset)) {
+            return null;
+        }
+        return compiled.computeIfAbsent(charset, Compiled::new);
+    }
+
+    // UTF-8中多字节字符的每个字节都不会与ASCII或其他字符的开头混淆；单字节字符集一个字节对应一个字符
+    private static boolean supportsByteMatching(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        try {
+            return charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1.0f;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private enum Mode { CONTAINS, EQUALS, TEXT }
+
+    // 单个POC的指示器
+    private static final class Rule {
+        private final Mode mode;
+        private final List<String> success;
+        private final List<String> errors;
+
+        Rule(POCConfig.Response response) {
+            String matchType = response != null ? response.getMatchType().toLowerCase() : "contains";
+            if ("regex".equals(matchType)) {
+                this.mode = Mode.TEXT;
+            } else if ("equals".equals(matchType)) {
+                this.mode = Mode.EQUALS;
+            } else {
+                // 与matchIndicator一致，未知的匹配类型按contains处理
+                this.mode = Mode.CONTAINS;
+            }
+            this.success = nonNull(response != null ? response.getSuccessIndicators() : null);
+            this.errors = nonNull(response != null ? response.getErrorIndicators() : null);
+        }
+
+        private static List<String> nonNull(List<String> indicators) {
+            List<String> result = new ArrayList<>();
+            if (indicators != null) {
+                for (String indicator : indicators) {
+                    if (indicator != null) {
+                        result.add(indicator);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    // 按某个字符集编译的结果；无法用该字符集表示的指示器不可能出现在响应体中，编码结果为null
+    private final class Compiled {
+        private final AhoCorasick automaton;
+        private final int[][] successIds; // 每个POC的成功指示器在自动机中的编号
+        private final int[][] errorIds;
+        private final byte[][][] successBytes; // equals使用
+        private final byte[][][] errorBytes;
+
+        Compiled(Charset charset) {
+            CharsetEncoder encoder = charset.newEncoder();
+            List<byte[]> patterns = new ArrayList<>();
+            successIds = new int[rules.length][];
+            errorIds = new int[rules.length][];
+            successBytes = new byte[rules.length][][];
+            errorBytes = new byte[rules.length][][];
+            for (int i = 0; i < rules.length; i++) {
+                Rule rule = rules[i];
+                if (rule.mode == Mode.CONTAINS) {
+                    successIds[i] = register(rule.success, encoder, patterns);
+                    errorIds[i] = register(rule.errors, encoder, patterns);
+                } else if (rule.mode == Mode.EQUALS) {
+                    successBytes[i] = encodeAll(rule.success, encoder);
+                    errorBytes[i] = encodeAll(rule.errors, encoder);
+                }
+            }
+            this.automaton = new AhoCorasick(patterns.toArray(new byte[0][]));
+        }
+
+        Boolean verdict(int rule, boolean[] hits) {
+            if (successIds[rule].length > 0 && !anyHit(successIds[rule], hits)) {
+                return false;
+            }
+            return !anyHit(errorIds[rule], hits);
+        }
+
+        // 增量扫描时结论是否已经确定
+        boolean decided(int rule, boolean[] hits) {
+            if (anyHit(errorIds[rule], hits)) {
+                return true;
+            }
+            return errorIds[rule].length == 0 && anyHit(successIds[rule], hits);
+        }
+
+        Boolean equalsVerdict(int rule, byte[] body, int length) {
+            if (successBytes[rule].length > 0 && !anyEquals(successBytes[rule], body, length)) {
+                return false;
+            }
+            return !anyEquals(errorBytes[rule], body, length);
+        }
+
+        private int[] register(List<String> indicators, CharsetEncoder encoder, List<byte[]> patterns) {
+            int[] ids = new int[indicators.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = patterns.size();
+                patterns.add(encode(indicators.get(i), encoder));
+            }
+            return ids;
+        }
+
+        private byte[][] encodeAll(List<String> indicators, CharsetEncoder encoder) {
+            byte[][] encoded = new byte[indicators.size()][];
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = encode(indicators.get(i), encoder);
+            }
+            return encoded;
+        }
+
+        private byte[] encode(String indicator, CharsetEncoder encoder) {
+            try {
+                ByteBuffer bytes = encoder.reset().encode(CharBuffer.wrap(indicator));
+                return Arrays.copyOf(bytes.array(), bytes.limit());
+            } catch (CharacterCodingException e) {
+                return null;
+            }
+        }
+
+        private boolean anyHit(int[] ids, boolean[] hits) {
+            for (int id : ids) {
+                if (hits[id]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean anyEquals(byte[][] candidates, byte[] body, int length) {
+            for (byte[] candidate : candidates) {
+                if (candidate != null && sameBytes(candidate, body, length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean sameBytes(byte[] candidate, byte[] body, int length) {
+            if (candidate.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (candidate[i] != body[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.LatencySnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的延迟直方图（HDR风格的对数-线性分桶）：以微秒为单位，每个2的幂区间再分为16个子桶，
+ * 相对误差约6%，记录和读取都不加锁，固定占用约4KB内存。超过约70分钟的值计入最后一个桶。
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 27; // 可区分的最大值约为2^32微秒
+    private static final int BUCKETS = (MAX_SHIFT + 2) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(indexOf(micros));
+        count.increment();
+        sumMicros.add(micros);
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    /**
+     * 读取当前的统计值；与并发的记录操作之间不加锁，各个值可能相差正在记录的少数几次
+     */
+    public LatencySnapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = counts.get(i);
+            total += buckets[i];
+        }
+        return new LatencySnapshot(total, sumMicros.sum() / 1000.0, maxMicros.get() / 1000.0,
+                percentile(buckets, total, 0.50), percentile(buckets, total, 0.90),
+                percentile(buckets, total, 0.99), percentile(buckets, total, 0.999));
+    }
+
+    // 返回第p分位所在桶的上界（毫秒）
+    private static double percentile(long[] buckets, long total, double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return upperBoundOf(i) / 1000.0;
+            }
+        }
+        return upperBoundOf(buckets.length - 1) / 1000.0;
+    }
+
+    // 小于2*SUB_COUNT的值每个值一个桶，之后每个2的幂区间分为SUB_COUNT个桶
+    static int indexOf(long micros) {
+        if (micros < 2 * SUB_COUNT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return (shift + 1) * SUB_COUNT + (int) ((micros >>> shift) - SUB_COUNT);
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long lower = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
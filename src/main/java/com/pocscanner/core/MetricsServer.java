@@ -0,0 +1,259 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.LatencySnapshot;
+import com.pocscanner.core.model.MetricsSnapshot;
+import com.pocscanner.http.HttpClient;
+import com.pocscanner.http.ResponseCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 以Prometheus文本格式（0.0.4）导出扫描指标的内嵌HTTP服务，只监听127.0.0.1，
+ * 长时间扫描时可由现有的监控系统抓取 http://127.0.0.1:端口/metrics。
+ * 每次抓取时读取ScanMetrics的快照，不影响扫描线程；按POC的延迟不导出，避免时间序列过多。
+ */
+public class MetricsServer implements AutoCloseable {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final ScannerEngine engine;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public MetricsServer(ScannerEngine engine, int port) throws IOException {
+        this.engine = engine;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + getPort() + "/metrics";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().add("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("生成指标失败: " + e.getMessage());
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // 生成当前所有指标的文本
+    String render() {
+        StringBuilder out = new StringBuilder(4096);
+        renderScan(out, engine.getMetrics().snapshot());
+        renderConnections(out, engine.getHttpClient());
+        renderJvm(out);
+        return out.toString();
+    }
+
+    private static void renderScan(StringBuilder out, MetricsSnapshot metrics) {
+        family(out, "pocscanner_scan_elapsed_seconds", "gauge", "当前扫描已进行的时间");
+        sample(out, "pocscanner_scan_elapsed_seconds", "", metrics.getElapsedMillis() / 1000.0);
+        family(out, "pocscanner_requests_started_total", "counter", "已发出的请求数");
+        sample(out, "pocscanner_requests_started_total", "", metrics.getRequestsStarted());
+        family(out, "pocscanner_requests_completed_total", "counter", "已完成的请求数");
+        sample(out, "pocscanner_requests_completed_total", "", metrics.getRequestsCompleted());
+        family(out, "pocscanner_results_total", "counter", "已投递的扫描结果数（合并的请求每个POC一条）");
+        sample(out, "pocscanner_results_total", "", metrics.getResultsDelivered());
+        family(out, "pocscanner_requests_per_second", "gauge", "最近10秒的平均吞吐量");
+        sample(out, "pocscanner_requests_per_second", "", metrics.getRequestsPerSecond());
+        family(out, "pocscanner_requests_in_flight", "gauge", "正在进行的请求数");
+        sample(out, "pocscanner_requests_in_flight", "", metrics.getInFlight());
+        family(out, "pocscanner_target_queue_depth", "gauge", "已读入、等待调度的目标数");
+        sample(out, "pocscanner_target_queue_depth", "", metrics.getQueueDepth());
+        family(out, "pocscanner_timeouts_total", "counter", "超时的请求数");
+        sample(out, "pocscanner_timeouts_total", "", metrics.getTimeouts());
+
+        family(out, "pocscanner_errors_total", "counter", "按异常类型统计的错误数");
+        for (Map.Entry<String, Long> entry : new TreeMap<>(metrics.getErrorsByType()).entrySet()) {
+            sample(out, "pocscanner_errors_total", label("type", entry.getKey()), entry.getValue());
+        }
+
+        family(out, "pocscanner_request_latency_seconds", "summary", "请求延迟");
+        latency(out, "pocscanner_request_latency_seconds", "", metrics.getLatency());
+
+        Map<String, Long> hostErrors = metrics.getHostErrors();
+        Map<String, Long> hostRequests = new TreeMap<>(metrics.getHostRequests());
+        family(out, "pocscanner_host_requests_total", "counter", "按主机统计的已完成请求数");
+        for (Map.Entry<String, Long> entry : hostRequests.entrySet()) {
+            sample(out, "pocscanner_host_requests_total", label("host", entry.getKey()), entry.getValue());
+        }
+        family(out, "pocscanner_host_errors_total", "counter", "按主机统计的失败请求数");
+        for (String host : hostRequests.keySet()) {
+            sample(out, "pocscanner_host_errors_total", label("host", host), errors(hostErrors, host));
+        }
+        family(out, "pocscanner_host_error_ratio", "gauge", "按主机统计的失败请求比例（扫描开始以来）");
+        for (Map.Entry<String, Long> entry : hostRequests.entrySet()) {
+            long requests = entry.getValue();
+            sample(out, "pocscanner_host_error_ratio", label("host", entry.getKey()),
+                    requests == 0 ? 0 : (double) errors(hostErrors, entry.getKey()) / requests);
+        }
+        family(out, "pocscanner_host_request_latency_seconds", "summary", "按主机统计的请求延迟");
+        for (Map.Entry<String, LatencySnapshot> entry : new TreeMap<>(metrics.getHostLatency()).entrySet()) {
+            latency(out, "pocscanner_host_request_latency_seconds", label("host", entry.getKey()), entry.getValue());
+        }
+    }
+
+    private static void renderConnections(StringBuilder out, HttpClient httpClient) {
+        int connections = httpClient.getConnectionCount();
+        int idle = httpClient.getIdleConnectionCount();
+        family(out, "pocscanner_http_connections", "gauge", "连接池中的连接数");
+        sample(out, "pocscanner_http_connections", label("state", "active"), Math.max(0, connections - idle));
+        sample(out, "pocscanner_http_connections", label("state", "idle"), idle);
+        family(out, "pocscanner_http_max_idle_connections", "gauge", "连接池的空闲连接上限");
+        sample(out, "pocscanner_http_max_idle_connections", "", httpClient.getMaxIdleConnections());
+        family(out, "pocscanner_http_calls", "gauge", "HTTP调度器中的请求数");
+        sample(out, "pocscanner_http_calls", label("state", "running"), httpClient.getRunningCallCount());
+        sample(out, "pocscanner_http_calls", label("state", "queued"), httpClient.getQueuedCallCount());
+
+        ResponseCache cache = httpClient.getResponseCache();
+        if (cache != null) {
+            family(out, "pocscanner_response_cache_hits_total", "counter", "响应缓存命中次数");
+            sample(out, "pocscanner_response_cache_hits_total", "", cache.getHits());
+            family(out, "pocscanner_response_cache_misses_total", "counter", "响应缓存未命中次数");
+            sample(out, "pocscanner_response_cache_misses_total", "", cache.getMisses());
+            family(out, "pocscanner_response_cache_bytes", "gauge", "响应缓存占用的堆外内存");
+            sample(out, "pocscanner_response_cache_bytes", "", cache.getUsedBytes());
+        }
+    }
+
+    private static void renderJvm(StringBuilder out) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        family(out, "jvm_memory_bytes_used", "gauge", "JVM内存使用量");
+        sample(out, "jvm_memory_bytes_used", label("area", "heap"), heap.getUsed());
+        sample(out, "jvm_memory_bytes_used", label("area", "nonheap"), nonHeap.getUsed());
+        family(out, "jvm_memory_bytes_committed", "gauge", "JVM已提交的内存");
+        sample(out, "jvm_memory_bytes_committed", label("area", "heap"), heap.getCommitted());
+        sample(out, "jvm_memory_bytes_committed", label("area", "nonheap"), nonHeap.getCommitted());
+        // 未设置上限时为-1，按Prometheus客户端的惯例照常导出
+        family(out, "jvm_memory_bytes_max", "gauge", "JVM内存上限");
+        sample(out, "jvm_memory_bytes_max", label("area", "heap"), heap.getMax());
+        sample(out, "jvm_memory_bytes_max", label("area", "nonheap"), nonHeap.getMax());
+
+        // 响应缓存和OkHttp使用堆外内存，单独导出direct和mapped缓冲池
+        family(out, "jvm_buffer_pool_used_bytes", "gauge", "缓冲池使用的内存");
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            sample(out, "jvm_buffer_pool_used_bytes", label("pool", pool.getName()), pool.getMemoryUsed());
+        }
+
+        family(out, "jvm_gc_collection_seconds", "summary", "垃圾回收耗时");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String labels = label("gc", gc.getName());
+            sample(out, "jvm_gc_collection_seconds_count", labels, gc.getCollectionCount());
+            sample(out, "jvm_gc_collection_seconds_sum", labels, gc.getCollectionTime() / 1000.0);
+        }
+
+        family(out, "jvm_threads_current", "gauge", "当前线程数");
+        sample(out, "jvm_threads_current", "", ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    private static long errors(Map<String, Long> hostErrors, String host) {
+        Long count = hostErrors.get(host);
+        return count == null ? 0 : count;
+    }
+
+    // 延迟按Prometheus惯例以秒为单位导出，分位值来自直方图（相对误差约6%）
+    private static void latency(StringBuilder out, String name, String labels, LatencySnapshot snapshot) {
+        double[] values = {snapshot.getP50(), snapshot.getP90(), snapshot.getP99(), snapshot.getP999()};
+        for (int i = 0; i < QUANTILES.length; i++) {
+            String quantile = label("quantile", Double.toString(QUANTILES[i]));
+            sample(out, name, labels.isEmpty() ? quantile : labels + "," + quantile,
+                    snapshot.getCount() == 0 ? Double.NaN : values[i] / 1000.0);
+        }
+        sample(out, name + "_sum", labels, snapshot.getSumMillis() / 1000.0);
+        sample(out, name + "_count", labels, snapshot.getCount());
+    }
+
+    private static void family(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String label(String name, String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                escaped.append('\\').append(c);
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else {
+                escaped.append(c);
+            }
+        }
+        return name + "=\"" + escaped + "\"";
+    }
+
+    // 整数值不带小数点输出，其余按Double.toString输出（与区域设置无关）
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -4,19 +4,30 @@ import com.pocscanner.core.model.POCConfig;
 import com.pocscanner.core.model.ScanRequest;
 import com.pocscanner.core.model.ScanResult;
 import com.pocscanner.core.model.VulnerabilityLevel;
+import com.pocscanner.http.HeaderInspector;
 import com.pocscanner.http.HttpClient;
 import com.pocscanner.http.HttpResponse;
+import com.pocscanner.http.RequestOptions;
+import com.pocscanner.http.ResponseCache;
+import com.pocscanner.http.TimingStats;
+import com.pocscanner.jfr.FlightEvents;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Pattern;
 
 public class POCEngine {
     private HttpClient httpClient;
     private int timeout = 10000; // 默认超时时间10秒
+    private long regexStepLimit; // JDK正则引擎每次匹配的步数上限，默认不限制
 
     public POCEngine() {
         this.httpClient = new HttpClient();
@@ -36,71 +47,445 @@ public class POCEngine {
     }
 
     public ScanResult execute(POCConfig poc, String target) {
+        Object event = FlightEvents.beginPocExecute();
         ScanResult result = new ScanResult();
+        HttpResponse response = null;
+        try {
+            String fullUrl = prepare(poc, target, result);
+
+            // 发送请求并获取响应
+            String method = requestMethod(Collections.singletonList(poc));
+            result.setRequestMethod(method);
+            response = httpClient.sendRequest(
+                method,
+                fullUrl,
+                result.getRequestHeaders(),
+                result.getRequestBody(),
+                buildOptions(poc)
+            );
+            complete(poc, fullUrl, response, result, byteVerdict(IndicatorMatcher.of(poc), response));
+        } catch (Exception e) {
+            fail(result, e);
+        }
+
+        endExecuteEvent(event, poc, 1, target, response, Collections.singletonList(result));
+        return result;
+    }
+
+    /**
+     * 执行一组请求相同的POC：只发送一次请求，每个POC根据同一个响应判断，结果顺序与POC集合相同
+     */
+    public List<ScanResult> execute(POCSet pocSet, String target) {
+        Object event = FlightEvents.beginPocExecute();
+        List<ScanResult> results = new ArrayList<>();
+        HttpResponse response = null;
+        try {
+            String fullUrl = prepareAll(pocSet, target, results);
+            ScanResult first = results.get(0);
+            String method = requestMethod(pocSet.getPocs());
+            for (ScanResult result : results) {
+                result.setRequestMethod(method);
+            }
+            response = httpClient.sendRequest(
+                method,
+                fullUrl,
+                first.getRequestHeaders(),
+                first.getRequestBody(),
+                buildOptions(pocSet)
+            );
+            completeAll(pocSet, fullUrl, response, results);
+        } catch (Exception e) {
+            failAll(pocSet, target, results, e);
+        }
+        endExecuteEvent(event, pocSet.getRequestPoc(), pocSet.size(), target, response, results);
+        return results;
+    }
+
+    /**
+     * execute(POCSet, String)的异步版本：请求发出后不占用调用线程，响应体读取和匹配在HttpClient的响应线程池中完成。
+     * 返回的Future总是正常完成，执行失败的信息记录在ScanResult中
+     */
+    public CompletableFuture<List<ScanResult>> executeAsync(POCSet pocSet, String target) {
+        Object event = FlightEvents.beginPocExecute();
+        List<ScanResult> results = new ArrayList<>();
+        String fullUrl;
+        try {
+            fullUrl = prepareAll(pocSet, target, results);
+        } catch (Exception e) {
+            failAll(pocSet, target, results, e);
+            endExecuteEvent(event, pocSet.getRequestPoc(), pocSet.size(), target, null, results);
+            return CompletableFuture.completedFuture(results);
+        }
+
+        ScanResult first = results.get(0);
+        String method = requestMethod(pocSet.getPocs());
+        for (ScanResult result : results) {
+            result.setRequestMethod(method);
+        }
+        return httpClient.sendRequestAsync(
+                method,
+                fullUrl,
+                first.getRequestHeaders(),
+                first.getRequestBody(),
+                buildOptions(pocSet)
+        ).handle((response, error) -> {
+            if (error != null) {
+                failAll(pocSet, target, results, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                endExecuteEvent(event, pocSet.getRequestPoc(), pocSet.size(), target, null, results);
+                return results;
+            }
+            try {
+                completeAll(pocSet, fullUrl, response, results);
+            } catch (Exception e) {
+                failAll(pocSet, target, results, e);
+            }
+            endExecuteEvent(event, pocSet.getRequestPoc(), pocSet.size(), target, response, results);
+            return results;
+        });
+    }
+
+    public void setPreferHttp2(boolean preferHttp2) {
+        httpClient.setPreferHttp2(preferHttp2);
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        httpClient.setKeepAlive(keepAlive);
+    }
+
+    public void setConnectionPool(int maxIdleConnections, long keepAliveMillis) {
+        httpClient.setConnectionPool(maxIdleConnections, keepAliveMillis);
+    }
+
+    // 设置响应体读取上限（字节），POC中配置的maxBodySize优先
+    public void setMaxBodySize(long maxBodySize) {
+        httpClient.setMaxBodySize(maxBodySize);
+    }
+
+    /**
+     * 设置响应缓存，为null时关闭
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        httpClient.setResponseCache(responseCache);
+    }
+
+    // 按主机汇总的请求阶段耗时
+    public TimingStats getTimingStats() {
+        return httpClient.getTimingStats();
+    }
+
+    HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * 设置JDK正则引擎每次匹配的步数上限（读取字符的次数，1亿步约为1秒CPU时间），不大于0时不限制（默认）。
+     * POC中设置了regexStepLimit时以POC的设置为准
+     */
+    public void setRegexStepLimit(long regexStepLimit) {
+        this.regexStepLimit = regexStepLimit;
+    }
+
+    // 释放HTTP客户端独占的资源，共享的连接池和调度器继续供其他扫描使用
+    public void release() {
+        httpClient.release();
+    }
+
+    // 设置异步模式下同时进行的最大请求数
+    public void setMaxInFlight(int maxInFlight) {
+        httpClient.setMaxInFlight(maxInFlight);
+    }
+
+    // 记录POC和请求信息，返回完整URL
+    private String prepare(POCConfig poc, String target, ScanResult result) {
         result.setPocName(poc.getName());
         result.setTarget(target);
         result.setLevel(poc.getLevel() != null ? poc.getLevel().toString() : VulnerabilityLevel.Unknown.toString());
 
+        // 构建完整URL
+        String fullUrl = buildFullUrl(target, poc.getRequest().getPath(), poc.getRequest().getParams());
+
+        // 准备请求头
+        Map<String, String> headers = new HashMap<>();
+        if (poc.getRequest().getHeaders() != null) {
+            headers.putAll(poc.getRequest().getHeaders());
+        }
+
+        // 准备请求体
+        String body = poc.getRequest().getBody();
+
+        // 记录请求信息
+        result.setRequestMethod(poc.getRequest().getMethod());
+        result.setRequestUrl(fullUrl);
+        result.setRequestPath(poc.getRequest().getPath());
+        result.setRequestParams(poc.getRequest().getParams());
+        result.setRequestHeaders(headers);
+        result.setRequestBody(body);
+        return fullUrl;
+    }
+
+    // 请求设置：连接复用、响应体上限，以及读取响应体时的增量匹配
+    private RequestOptions buildOptions(POCConfig poc) {
+        RequestOptions options = new RequestOptions();
+        options.setFreshConnection(Boolean.TRUE.equals(poc.getRequest().getFreshConnection()));
+        if (poc.getResponse() != null) {
+            if (poc.getResponse().getMaxBodySize() != null) {
+                options.setMaxBodySize(poc.getResponse().getMaxBodySize());
+            }
+            IndicatorMatcher matcher = IndicatorMatcher.of(poc);
+            options.setBodyInspector(matcher != null ? matcher.newInspector() : null);
+        }
+        options.setSkipBody(!needsBody(Collections.singletonList(poc)));
+        options.setHeaderInspector(headerInspector(Collections.singletonList(poc)));
+        return options;
+    }
+
+    // 收到响应头后，只要还有POC的结论取决于响应体就读取响应体
+    private static HeaderInspector headerInspector(List<POCConfig> pocs) {
+        return (statusCode, headers) -> {
+            for (POCConfig poc : pocs) {
+                if (bodyMatters(poc, statusCode, headers)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * 根据状态码、响应头和Content-Length判断POC的结论是否还取决于响应体。
+     * 返回false时用空响应体判断得到的结论与读取完整响应体相同，响应体可以直接丢弃。
+     */
+    private static boolean bodyMatters(POCConfig poc, int statusCode, Map<String, List<String>> headers) {
+        POCConfig.Response rule = poc.getResponse();
+        if (rule == null) {
+            return true;
+        }
+        // 状态码或响应头不符时一定不是漏洞
+        if (rule.getStatusCode() != null && rule.getStatusCode() != statusCode) {
+            return false;
+        }
+        if (!matchHeaders(rule.getHeaderIndicators(), headers)) {
+            return false;
+        }
+        if (isEmpty(rule.getSuccessIndicators()) && isEmpty(rule.getErrorIndicators())) {
+            return false;
+        }
+        // 未压缩的响应体解码后的字符数不超过Content-Length，比所有指示器都短时不可能匹配任何指示器
+        long contentLength = plainContentLength(headers);
+        if (contentLength < 0 || "regex".equalsIgnoreCase(rule.getMatchType())) {
+            return true;
+        }
+        if (!isEmpty(rule.getSuccessIndicators())) {
+            return contentLength >= minLength(rule.getSuccessIndicators());
+        }
+        // 只配置了错误指示器时，错误指示器不可能出现则一定命中
+        return contentLength >= minLength(rule.getErrorIndicators());
+    }
+
+    // 未压缩响应的Content-Length，未知或经过压缩时返回-1
+    private static long plainContentLength(Map<String, List<String>> headers) {
+        if (headers == null) {
+            return -1;
+        }
+        List<String> encoding = headers.get("content-encoding");
+        if (encoding != null && !encoding.isEmpty() && !"identity".equalsIgnoreCase(encoding.get(0).trim())) {
+            return -1;
+        }
+        List<String> length = headers.get("content-length");
+        if (length == null || length.isEmpty()) {
+            return -1;
+        }
         try {
-            // 构建完整URL
-            String fullUrl = buildFullUrl(target, poc.getRequest().getPath(), poc.getRequest().getParams());
-            
-            // 准备请求头
-            Map<String, String> headers = new HashMap<>();
-            if (poc.getRequest().getHeaders() != null) {
-                headers.putAll(poc.getRequest().getHeaders());
+            return Long.parseLong(length.get(0).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // 最短指示器的长度，没有指示器时返回Long.MAX_VALUE（不会匹配）
+    private static long minLength(List<String> indicators) {
+        long min = Long.MAX_VALUE;
+        if (indicators != null) {
+            for (String indicator : indicators) {
+                if (indicator != null) {
+                    min = Math.min(min, indicator.length());
+                }
             }
+        }
+        return min;
+    }
 
-            // 准备请求体
-            String body = poc.getRequest().getBody();
-            
-            // 记录请求信息
-            result.setRequestMethod(poc.getRequest().getMethod());
-            result.setRequestUrl(fullUrl);
-            result.setRequestPath(poc.getRequest().getPath());
-            result.setRequestParams(poc.getRequest().getParams());
-            result.setRequestHeaders(headers);
-            result.setRequestBody(body);
-            
-            // 发送请求并获取响应
-            HttpResponse response = httpClient.sendRequest(
-                poc.getRequest().getMethod(), 
-                fullUrl, 
-                headers, 
-                body
-            );
-            
-            // 收集响应信息
-            result.setResponseHeaders(convertHeaders(response.getHeaders()));
-            result.setResponseBody(response.getBody());
-            result.setStatusCode(String.valueOf(response.getStatusCode()));
-            result.setResponseTime(response.getResponseTime());
-            
-            // 收集SSL/TLS信息（如果是HTTPS请求）
-            if (fullUrl.startsWith("https://")) {
-                result.setSslProtocol(response.getSslProtocol());
-                result.setCipherSuite(response.getCipherSuite());
-                result.setSslVerified(response.isSslVerified());
-                result.setSslSubject(response.getSslSubject());
-                result.setSslIssuer(response.getSslIssuer());
-                result.setSslValidFrom(response.getSslValidFrom());
-                result.setSslValidTo(response.getSslValidTo());
+    // 是否有POC需要检查响应体：只配置了状态码和响应头匹配的POC不需要
+    private static boolean needsBody(List<POCConfig> pocs) {
+        for (POCConfig poc : pocs) {
+            POCConfig.Response response = poc.getResponse();
+            if (response == null || !isEmpty(response.getSuccessIndicators()) || !isEmpty(response.getErrorIndicators())) {
+                return true;
             }
-            
-            // 检查漏洞
-            boolean isVulnerable = checkVulnerability(poc, response);
-            result.setVulnerable(isVulnerable);
-            
-            if (isVulnerable) {
-                result.setEvidence("Matched vulnerability pattern");
+        }
+        return false;
+    }
+
+    private static boolean isEmpty(List<String> list) {
+        return list == null || list.isEmpty();
+    }
+
+    // 不需要响应体且所有POC都允许时，GET请求改用HEAD发送
+    private static String requestMethod(List<POCConfig> pocs) {
+        String method = pocs.get(0).getRequest().getMethod();
+        if (!"GET".equalsIgnoreCase(method) || needsBody(pocs)) {
+            return method;
+        }
+        for (POCConfig poc : pocs) {
+            if (!Boolean.TRUE.equals(poc.getRequest().getAllowHead())) {
+                return method;
             }
-            
-        } catch (Exception e) {
-            result.setVulnerable(false);
-            result.setEvidence("Error: " + e.getMessage());
         }
-        
-        return result;
+        return "HEAD";
+    }
+
+    // POC集合的请求设置：响应体上限取各POC中最大的，任一POC未设置时使用全局设置
+    private RequestOptions buildOptions(POCSet pocSet) {
+        RequestOptions options = new RequestOptions();
+        options.setFreshConnection(Boolean.TRUE.equals(pocSet.getRequestPoc().getRequest().getFreshConnection()));
+        long maxBodySize = 0;
+        for (POCConfig poc : pocSet.getPocs()) {
+            if (poc.getResponse() == null || poc.getResponse().getMaxBodySize() == null) {
+                maxBodySize = 0;
+                break;
+            }
+            maxBodySize = Math.max(maxBodySize, poc.getResponse().getMaxBodySize());
+        }
+        options.setMaxBodySize(maxBodySize);
+        options.setBodyInspector(pocSet.getMatcher().newInspector());
+        options.setSkipBody(!needsBody(pocSet.getPocs()));
+        options.setHeaderInspector(headerInspector(pocSet.getPocs()));
+        return options;
+    }
+
+    // 为集合中的每个POC创建结果并记录请求信息，返回完整URL
+    private String prepareAll(POCSet pocSet, String target, List<ScanResult> results) {
+        String fullUrl = null;
+        for (POCConfig poc : pocSet.getPocs()) {
+            ScanResult result = new ScanResult();
+            String url = prepare(poc, target, result);
+            if (fullUrl == null) {
+                fullUrl = url;
+            }
+            results.add(result);
+        }
+        return fullUrl;
+    }
+
+    private void completeAll(POCSet pocSet, String fullUrl, HttpResponse response, List<ScanResult> results) {
+        // 一遍扫描得到所有POC的字节级匹配结论
+        Boolean[] verdicts = response.getRawBody() != null
+                ? pocSet.getMatcher().matchAll(response.getRawBody(), response.getRawBodyLength(), response.getCharset())
+                : new Boolean[pocSet.size()];
+        for (int i = 0; i < pocSet.size(); i++) {
+            complete(pocSet.getPocs().get(i), fullUrl, response, results.get(i), verdicts[i]);
+        }
+    }
+
+    // 请求失败时每个POC都记录同样的错误
+    private void failAll(POCSet pocSet, String target, List<ScanResult> results, Throwable e) {
+        for (int i = 0; i < pocSet.size(); i++) {
+            if (i == results.size()) {
+                ScanResult result = new ScanResult();
+                POCConfig poc = pocSet.getPocs().get(i);
+                result.setPocName(poc.getName());
+                result.setTarget(target);
+                result.setLevel(poc.getLevel() != null ? poc.getLevel().toString() : VulnerabilityLevel.Unknown.toString());
+                results.add(result);
+            }
+            fail(results.get(i), e);
+        }
+    }
+
+    // 记录POC执行的JFR事件，未开启录制时event为null，不做任何计算
+    private static void endExecuteEvent(Object event, POCConfig poc, int pocCount, String target,
+                                        HttpResponse response, List<ScanResult> results) {
+        if (event == null) {
+            return;
+        }
+        boolean vulnerable = false;
+        for (ScanResult result : results) {
+            vulnerable |= result.isVulnerable();
+        }
+        FlightEvents.endPocExecute(event, poc.getName(), pocCount, HostScheduler.hostOf(target),
+                response != null ? response.getRawBodyLength() : 0, vulnerable);
+    }
+
+    // JFR事件中的匹配类型，regex同时记录匹配方式和引擎，便于区分慢的表达式
+    private static String matcherName(POCConfig.Response rule) {
+        String type = rule.getMatchType().toLowerCase();
+        return "regex".equals(type) ? type + ":" + rule.getRegexMode() + ":" + rule.getRegexEngine() : type;
+    }
+
+    // 在未解码的响应体上按字节匹配单个POC的指示器，无法按字节匹配时返回null
+    private Boolean byteVerdict(IndicatorMatcher matcher, HttpResponse response) {
+        if (matcher == null || response.getRawBody() == null) {
+            return null;
+        }
+        return matcher.matches(response.getRawBody(), response.getRawBodyLength(), response.getCharset());
+    }
+
+    // 收集响应信息并检查漏洞
+    private void complete(POCConfig poc, String fullUrl, HttpResponse response, ScanResult result, Boolean indicatorVerdict) {
+        // 收集响应信息
+        result.setResponseHeaders(convertHeaders(response.getHeaders()));
+        // 响应体保持未解码状态，显示时才解码
+        if (response.getRawBody() != null) {
+            result.setRawResponseBody(response.getRawBody(), response.getRawBodyLength(), response.getCharset());
+        } else {
+            result.setResponseBody(response.getBody());
+        }
+        result.setStatusCode(String.valueOf(response.getStatusCode()));
+        result.setResponseTime(response.getResponseTime());
+        result.setProtocol(response.getProtocol());
+        result.setBodyTruncated(response.isBodyTruncated() || response.isEarlyTerminated() || response.isBodySkipped());
+        result.setFromCache(response.isFromCache());
+        result.setTimings(response.getTimings());
+
+        // 收集SSL/TLS信息（如果是HTTPS请求）
+        if (fullUrl.startsWith("https://")) {
+            result.setSslProtocol(response.getSslProtocol());
+            result.setCipherSuite(response.getCipherSuite());
+            result.setSslVerified(response.isSslVerified());
+            result.setSslSubject(response.getSslSubject());
+            result.setSslIssuer(response.getSslIssuer());
+            result.setSslValidFrom(response.getSslValidFrom());
+            result.setSslValidTo(response.getSslValidTo());
+        }
+
+        // 检查漏洞
+        Object matchEvent = FlightEvents.beginMatch();
+        boolean isVulnerable;
+        try {
+            isVulnerable = checkVulnerability(poc, response, indicatorVerdict);
+        } catch (RegexTimeoutException e) {
+            // 回溯过多的表达式只影响当前POC，按未命中处理
+            isVulnerable = false;
+            result.setMatchTimedOut(true);
+            result.setEvidence("Match timeout: " + e.getMessage());
+        }
+        if (matchEvent != null) {
+            FlightEvents.endMatch(matchEvent, poc.getName(), HostScheduler.hostOf(fullUrl), matcherName(poc.getResponse()),
+                    response.getRawBodyLength(), indicatorVerdict != null, isVulnerable);
+        }
+        result.setVulnerable(isVulnerable);
+
+        if (isVulnerable) {
+            result.setEvidence("Matched vulnerability pattern");
+        }
+    }
+
+    private void fail(ScanResult result, Throwable e) {
+        result.setVulnerable(false);
+        // SocketTimeoutException和OkHttp的调用超时都是InterruptedIOException
+        result.setTimedOut(e instanceof InterruptedIOException);
+        result.setErrorType(e.getClass().getSimpleName());
+        result.setEvidence("Error: " + e.getMessage());
     }
 
     // 将HttpResponse的headers转换为ScanResult需要的格式
@@ -120,7 +505,7 @@ public class POCEngine {
         return result;
     }
 
-    private String buildFullUrl(String target, String path, Map<String, String> params) {
+    String buildFullUrl(String target, String path, Map<String, String> params) {
         try {
             // 确保目标URL以http://或https://开头
             if (!target.startsWith("http://") && !target.startsWith("https://")) {
@@ -170,17 +555,30 @@ public class POCEngine {
         }
     }
 
-    private boolean checkVulnerability(POCConfig poc, HttpResponse response) {
+    /**
+     * @param indicatorVerdict 字节级匹配已得出的指示器结论，为null时用解码后的字符串匹配
+     */
+    boolean checkVulnerability(POCConfig poc, HttpResponse response, Boolean indicatorVerdict) {
     // 检查状态码
     if (poc.getResponse().getStatusCode() != null && response.getStatusCode() != poc.getResponse().getStatusCode()) {
         return false;
     }
 
+    // 检查响应头
+    if (!matchHeaders(poc.getResponse().getHeaderIndicators(), response.getHeaders())) {
+        return false;
+    }
+
+    // contains/equals已在未解码的响应体上完成匹配
+    if (indicatorVerdict != null) {
+        return indicatorVerdict;
+    }
+
     // 检查成功指示器
     if (poc.getResponse().getSuccessIndicators() != null && !poc.getResponse().getSuccessIndicators().isEmpty()) {
         boolean hasSuccessIndicator = false;
         for (String indicator : poc.getResponse().getSuccessIndicators()) {
-            if (matchIndicator(response.getBody(), indicator, poc.getResponse().getMatchType())) {
+            if (matchIndicator(decodeBody(response), indicator, poc.getResponse())) {
                 hasSuccessIndicator = true;
                 break;
             }
@@ -193,7 +591,7 @@ public class POCEngine {
     // 检查错误指示器
     if (poc.getResponse().getErrorIndicators() != null && !poc.getResponse().getErrorIndicators().isEmpty()) {
         for (String indicator : poc.getResponse().getErrorIndicators()) {
-            if (matchIndicator(response.getBody(), indicator, poc.getResponse().getMatchType())) {
+            if (matchIndicator(decodeBody(response), indicator, poc.getResponse())) {
                 return false;
             }
         }
@@ -202,19 +600,69 @@ public class POCEngine {
     return true;
 }
 
-    private boolean matchIndicator(String responseBody, String indicator, String matchType) {
+    // 匹配前把响应体解码为字符串，第一次解码时记录解码事件
+    private static String decodeBody(HttpResponse response) {
+        if (response.isBodyDecoded()) {
+            return response.getBody();
+        }
+        Object event = FlightEvents.beginDecode();
+        String body = response.getBody();
+        FlightEvents.endDecode(event, response.getCharset().name(), response.getRawBodyLength(), body.length());
+        return body;
+    }
+
+    /**
+     * 每个响应头匹配条件都要满足：响应中存在该响应头（名称不区分大小写），且某个值包含指定内容
+     */
+    private static boolean matchHeaders(Map<String, String> headerIndicators, Map<String, List<String>> headers) {
+        if (headerIndicators == null || headerIndicators.isEmpty()) {
+            return true;
+        }
+        if (headers == null) {
+            return false;
+        }
+        for (Map.Entry<String, String> indicator : headerIndicators.entrySet()) {
+            boolean matched = false;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (header.getKey() == null || !header.getKey().equalsIgnoreCase(indicator.getKey())) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    if (indicator.getValue() == null || value.contains(indicator.getValue())) {
+                        matched = true;
+                        break;
+                    }
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param rule POC的响应匹配规则，提供匹配类型以及regex的匹配方式和引擎
+     * @throws RegexTimeoutException JDK正则引擎匹配超过步数上限
+     */
+    boolean matchIndicator(String responseBody, String indicator, POCConfig.Response rule) {
         if (responseBody == null || indicator == null) {
             return false;
         }
 
-        switch (matchType.toLowerCase()) {
+        switch (rule.getMatchType().toLowerCase()) {
             case "equals":
                 return responseBody.equals(indicator);
             case "contains":
                 return responseBody.contains(indicator);
             case "regex":
+                // 表达式在POC加载时已编译并检查过语法，这里直接使用缓存
                 try {
-                    return responseBody.matches(indicator);
+                    return RegexCache.matches(indicator, responseBody, "find".equalsIgnoreCase(rule.getRegexMode()),
+                            rule.getRegexEngine(),
+                            rule.getRegexStepLimit() != null ? rule.getRegexStepLimit() : regexStepLimit);
+                } catch (RegexTimeoutException e) {
+                    throw e;
                 } catch (Exception e) {
                     System.err.println("正则表达式匹配失败: " + e.getMessage());
                     return false;
@@ -44,7 +44,7 @@ public class POCLoader {
                     }
                     
                     // 使用清理后的内容解析YAML
-                    POCConfig poc = yaml.load(content);
+                    POCConfig poc = compile(yaml.load(content), file.getName());
                     if (poc != null) {
                         pocs.add(poc);
                         System.out.println("成功加载POC: " + poc.getName());
@@ -57,7 +57,7 @@ public class POCLoader {
                         if (content.contains("!!com.pocscanner.core.model.POCConfig")) {
                             content = content.replace("!!com.pocscanner.core.model.POCConfig\n", "");
                         }
-                        POCConfig poc = yaml.load(content);
+                        POCConfig poc = compile(yaml.load(content), file.getName());
                         if (poc != null) {
                             pocs.add(poc);
                             System.out.println("成功加载POC (GBK编码): " + poc.getName());
@@ -80,14 +80,14 @@ public class POCLoader {
             if (content.contains("!!com.pocscanner.core.model.POCConfig")) {
                 content = content.replace("!!com.pocscanner.core.model.POCConfig\n", "");
             }
-            return yaml.load(content);
+            return compile(yaml.load(content), filePath);
         } catch (Exception e) {
             try {
                 String content = new String(Files.readAllBytes(new File(filePath).toPath()), "GBK");
                 if (content.contains("!!com.pocscanner.core.model.POCConfig")) {
                     content = content.replace("!!com.pocscanner.core.model.POCConfig\n", "");
                 }
-                return yaml.load(content);
+                return compile(yaml.load(content), filePath);
             } catch (Exception e2) {
                 System.err.println("加载POC文件失败: " + filePath + " - " + e.getMessage());
                 return null;
@@ -95,6 +95,56 @@ public class POCLoader {
         }
     }
 
+    // 加载时编译POC的匹配规则，扫描时不再重复编译；正则表达式无效的POC不加载
+    private POCConfig compile(POCConfig poc, String source) {
+        if (poc == null) {
+            return null;
+        }
+        List<String> regexErrors = validateRegex(poc);
+        if (!regexErrors.isEmpty()) {
+            for (String error : regexErrors) {
+                System.err.println("跳过POC " + source + ": " + error);
+            }
+            return null;
+        }
+        IndicatorMatcher.precompile(poc);
+        return poc;
+    }
+
+    // 编译regex匹配的所有指示器，返回语法错误
+    private List<String> validateRegex(POCConfig poc) {
+        List<String> errors = new ArrayList<>();
+        POCConfig.Response response = poc.getResponse();
+        if (response == null || !"regex".equalsIgnoreCase(response.getMatchType())) {
+            return errors;
+        }
+        String regexMode = response.getRegexMode();
+        if (!"fullmatch".equalsIgnoreCase(regexMode) && !"find".equalsIgnoreCase(regexMode)) {
+            errors.add("不支持的正则匹配方式: " + regexMode + "（可选fullmatch或find）");
+        }
+        String regexEngine = response.getRegexEngine();
+        if (!RegexCache.ENGINE_JDK.equalsIgnoreCase(regexEngine) && !RegexCache.isLinear(regexEngine)) {
+            errors.add("不支持的正则引擎: " + regexEngine + "（可选jdk或re2）");
+        }
+        List<String> indicators = new ArrayList<>();
+        if (response.getSuccessIndicators() != null) {
+            indicators.addAll(response.getSuccessIndicators());
+        }
+        if (response.getErrorIndicators() != null) {
+            indicators.addAll(response.getErrorIndicators());
+        }
+        for (String indicator : indicators) {
+            if (indicator == null) {
+                continue;
+            }
+            String error = RegexCache.check(indicator, regexEngine);
+            if (error != null) {
+                errors.add("正则表达式无效: " + error + " - " + indicator);
+            }
+        }
+        return errors;
+    }
+
     public List<String> validatePOC(POCConfig poc) {
         List<String> errors = new ArrayList<>();
 
@@ -114,10 +164,15 @@ public class POCLoader {
         if (poc.getResponse() == null) {
             errors.add("响应配置不能为空");
         } else {
-            if (poc.getResponse().getSuccessIndicators() == null ||
-                    poc.getResponse().getSuccessIndicators().isEmpty()) {
-                errors.add("成功特征指示器不能为空");
+            // 只检查状态码和响应头的POC可以不配置成功特征指示器
+            boolean hasSuccessIndicators = poc.getResponse().getSuccessIndicators() != null &&
+                    !poc.getResponse().getSuccessIndicators().isEmpty();
+            boolean hasHeaderIndicators = poc.getResponse().getHeaderIndicators() != null &&
+                    !poc.getResponse().getHeaderIndicators().isEmpty();
+            if (!hasSuccessIndicators && !hasHeaderIndicators && poc.getResponse().getStatusCode() == null) {
+                errors.add("成功特征指示器、响应头匹配和状态码至少需要配置一项");
             }
+            errors.addAll(validateRegex(poc));
         }
 
         return errors;
@@ -0,0 +1,93 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.POCConfig;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 发送完全相同请求的一组POC。对同一目标只需发送一次请求，所有POC根据同一个响应判断；
+ * 各POC的指示器在创建时编译进同一个自动机，一遍扫描响应体即可得到全部结论。
+ */
+public class POCSet {
+    private final List<POCConfig> pocs;
+    private final IndicatorMatcher matcher;
+
+    /**
+     * @param pocs 请求完全相同的POC，请求取自第一个POC
+     */
+    public POCSet(List<POCConfig> pocs) {
+        if (pocs == null || pocs.isEmpty()) {
+            throw new IllegalArgumentException("POC集合不能为空");
+        }
+        this.pocs = Collections.unmodifiableList(new ArrayList<>(pocs));
+        this.matcher = IndicatorMatcher.forPocs(this.pocs);
+    }
+
+    /**
+     * 按请求指纹（方法、路径、参数、请求头、请求体、是否新建连接）分组，请求完全相同的POC放入同一个集合。
+     * 分组保持POC的原有顺序；请求或响应规则缺失的POC单独成组，不影响其他POC。
+     */
+    public static List<POCSet> groupByRequest(List<POCConfig> pocs) {
+        Map<Object, List<POCConfig>> groups = new LinkedHashMap<>();
+        for (POCConfig poc : pocs) {
+            Object key = poc.getRequest() != null && poc.getResponse() != null ? fingerprint(poc.getRequest()) : new Object();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(poc);
+        }
+        List<POCSet> sets = new ArrayList<>(groups.size());
+        for (List<POCConfig> group : groups.values()) {
+            sets.add(new POCSet(group));
+        }
+        return sets;
+    }
+
+    // 请求指纹：方法和请求头名称不区分大小写，路径按发送时的规则补全开头的斜杠，参数区分顺序
+    private static Object fingerprint(POCConfig.Request request) {
+        String method = request.getMethod() != null ? request.getMethod().toUpperCase(Locale.ROOT) : null;
+        String path = request.getPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        } else if (!path.startsWith("/")) {
+            path = "/" + path;
+        }
+        Map<String, String> headers = new HashMap<>();
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+                headers.put(entry.getKey() != null ? entry.getKey().toLowerCase(Locale.ROOT) : null, entry.getValue());
+            }
+        }
+        // 参数按迭代顺序写入查询字符串，顺序不同的参数视为不同的请求
+        List<Map.Entry<String, String>> params = new ArrayList<>();
+        if (request.getParams() != null) {
+            for (Map.Entry<String, String> entry : request.getParams().entrySet()) {
+                params.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            }
+        }
+        return Arrays.asList(method, path, params, headers, request.getBody(),
+                Boolean.TRUE.equals(request.getFreshConnection()));
+    }
+
+    public List<POCConfig> getPocs() {
+        return pocs;
+    }
+
+    // 发送请求使用的POC
+    public POCConfig getRequestPoc() {
+        return pocs.get(0);
+    }
+
+    public int size() {
+        return pocs.size();
+    }
+
+    IndicatorMatcher getMatcher() {
+        return matcher;
+    }
+}
@@ -0,0 +1,126 @@
+package com.pocscanner.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * POC中正则表达式的编译缓存：每个表达式只编译一次，POC加载时预先编译，语法错误在加载时就能发现。
+ * 支持两种引擎：JDK引擎（默认，可按步数限制每次匹配的开销）和RE2线性时间引擎（不支持反向引用和环视）。
+ */
+final class RegexCache {
+    static final String ENGINE_JDK = "jdk";
+    static final String ENGINE_RE2 = "re2";
+
+    private static final ConcurrentHashMap<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, com.google.re2j.Pattern> LINEAR_PATTERNS = new ConcurrentHashMap<>();
+
+    private RegexCache() {
+    }
+
+    /**
+     * 返回编译后的表达式，表达式无效时抛出PatternSyntaxException（不缓存）
+     */
+    static Pattern compile(String regex) throws PatternSyntaxException {
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            PATTERNS.putIfAbsent(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * 返回RE2引擎编译后的表达式，表达式无效或使用了RE2不支持的语法时抛出com.google.re2j.PatternSyntaxException
+     */
+    static com.google.re2j.Pattern compileLinear(String regex) {
+        com.google.re2j.Pattern pattern = LINEAR_PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = com.google.re2j.Pattern.compile(regex);
+            LINEAR_PATTERNS.putIfAbsent(regex, pattern);
+        }
+        return pattern;
+    }
+
+    static boolean isLinear(String engine) {
+        return ENGINE_RE2.equalsIgnoreCase(engine);
+    }
+
+    /**
+     * 用指定引擎编译表达式，返回语法错误描述，表达式有效时返回null
+     */
+    static String check(String regex, String engine) {
+        try {
+            if (isLinear(engine)) {
+                compileLinear(regex);
+            } else {
+                compile(regex);
+            }
+            return null;
+        } catch (PatternSyntaxException e) {
+            return e.getDescription();
+        } catch (com.google.re2j.PatternSyntaxException e) {
+            return e.getDescription();
+        }
+    }
+
+    /**
+     * @param find 为true时只要求部分匹配（Matcher.find），否则要求整个输入匹配（Matcher.matches）
+     */
+    static boolean matches(String regex, CharSequence input, boolean find) {
+        return matches(regex, input, find, ENGINE_JDK, 0);
+    }
+
+    /**
+     * @param engine    "re2"使用线性时间引擎，其他值使用JDK引擎
+     * @param stepLimit JDK引擎每次匹配最多读取的字符数，不大于0时不限制；超过时抛出RegexTimeoutException
+     */
+    static boolean matches(String regex, CharSequence input, boolean find, String engine, long stepLimit) {
+        if (isLinear(engine)) {
+            com.google.re2j.Matcher matcher = compileLinear(regex).matcher(input);
+            return find ? matcher.find() : matcher.matches();
+        }
+        CharSequence text = stepLimit > 0 ? new BudgetCharSequence(input, stepLimit, regex) : input;
+        java.util.regex.Matcher matcher = compile(regex).matcher(text);
+        return find ? matcher.find() : matcher.matches();
+    }
+
+    /**
+     * 统计JDK正则引擎读取字符的次数，回溯严重的表达式会反复读取同一段输入，次数超过上限时中止匹配
+     */
+    private static final class BudgetCharSequence implements CharSequence {
+        private final CharSequence text;
+        private final String regex;
+        private final long limit;
+        private long steps;
+
+        BudgetCharSequence(CharSequence text, long limit, String regex) {
+            this.text = text;
+            this.limit = limit;
+            this.regex = regex;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > limit) {
+                throw new RegexTimeoutException(regex, limit);
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.pocscanner.core;
+
+/**
+ * JDK正则引擎的一次匹配超过步数上限（通常是表达式回溯过多）
+ */
+class RegexTimeoutException extends RuntimeException {
+    RegexTimeoutException(String regex, long limit) {
+        super("正则匹配超过" + limit + "步仍未结束: " + regex);
+    }
+}
@@ -0,0 +1,13 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.ScanResult;
+
+/**
+ * 扫描结果接收器，每个检测完成后立即收到结果，无需等待整个扫描结束
+ */
+@FunctionalInterface
+public interface ResultSink {
+
+    // 注意：该方法在扫描线程中调用，实现应尽快返回
+    void accept(ScanResult result);
+}
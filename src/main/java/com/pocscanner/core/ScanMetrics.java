@@ -0,0 +1,174 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.LatencySnapshot;
+import com.pocscanner.core.model.MetricsSnapshot;
+import com.pocscanner.core.model.ScanResult;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 扫描指标：吞吐量、进行中的请求数、排队的目标数、超时和按类型统计的错误，以及整体、按主机和按POC的延迟直方图。
+ * 所有计数都使用原子变量，扫描线程记录和GUI、导出器读取快照都不加锁。
+ * 按主机和按POC的直方图数量有上限，超出后计入OTHER，避免大规模扫描时内存无限增长。
+ */
+public class ScanMetrics {
+    public static final String OTHER = "(other)";
+    private static final int MAX_HOSTS = 1000;
+    private static final int MAX_POCS = 5000;
+    private static final int RATE_WINDOW_SECONDS = 10;
+    private static final int RATE_SLOTS = RATE_WINDOW_SECONDS + 2;
+
+    private volatile long startNanos = System.nanoTime();
+    private final LongAdder requestsStarted = new LongAdder();
+    private final LongAdder requestsCompleted = new LongAdder();
+    private final LongAdder resultsDelivered = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile int inFlight;
+    private volatile int queueDepth;
+    private final ConcurrentHashMap<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> hostRequests = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> hostErrors = new ConcurrentHashMap<>();
+    private volatile LatencyHistogram latency = new LatencyHistogram();
+    private final ConcurrentHashMap<String, LatencyHistogram> hostLatency = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> pocLatency = new ConcurrentHashMap<>();
+    // 按秒计数的环形缓冲区，用于计算最近几秒的吞吐量
+    private final AtomicLongArray secondCounts = new AtomicLongArray(RATE_SLOTS);
+    private final AtomicLongArray secondStamps = new AtomicLongArray(RATE_SLOTS);
+
+    // 开始新的扫描时清空所有指标
+    public void reset() {
+        startNanos = System.nanoTime();
+        requestsStarted.reset();
+        requestsCompleted.reset();
+        resultsDelivered.reset();
+        timeouts.reset();
+        inFlight = 0;
+        queueDepth = 0;
+        errorsByType.clear();
+        hostRequests.clear();
+        hostErrors.clear();
+        latency = new LatencyHistogram();
+        hostLatency.clear();
+        pocLatency.clear();
+        for (int i = 0; i < RATE_SLOTS; i++) {
+            secondCounts.set(i, 0);
+            secondStamps.set(i, 0);
+        }
+    }
+
+    public void onRequestStarted() {
+        requestsStarted.increment();
+    }
+
+    /**
+     * 记录一次完成的请求
+     *
+     * @param latencyNanos 请求耗时，小于0时（如来自缓存的响应）不计入延迟直方图
+     * @param errorType    请求失败的异常类型，成功时为null
+     */
+    public void onRequestCompleted(String host, long latencyNanos, boolean timedOut, String errorType) {
+        requestsCompleted.increment();
+        markSecond();
+        // 主机的各项统计使用同一个键，主机数超过上限后一起计入OTHER
+        String hostKey = boundedKey(hostRequests, host, MAX_HOSTS);
+        hostRequests.computeIfAbsent(hostKey, k -> new LongAdder()).increment();
+        if (timedOut) {
+            timeouts.increment();
+        }
+        if (errorType != null) {
+            errorsByType.computeIfAbsent(errorType, k -> new LongAdder()).increment();
+            hostErrors.computeIfAbsent(hostKey, k -> new LongAdder()).increment();
+        }
+        if (latencyNanos >= 0) {
+            latency.recordNanos(latencyNanos);
+            hostLatency.computeIfAbsent(hostKey, k -> new LatencyHistogram()).recordNanos(latencyNanos);
+        }
+    }
+
+    // 记录投递的结果；同一请求的每个POC分别计入该POC的延迟
+    public void onResult(ScanResult result, long latencyNanos) {
+        resultsDelivered.increment();
+        if (result.isMatchTimedOut()) {
+            errorsByType.computeIfAbsent(RegexTimeoutException.class.getSimpleName(), k -> new LongAdder()).increment();
+        }
+        if (latencyNanos >= 0 && result.getPocName() != null) {
+            bounded(pocLatency, result.getPocName(), MAX_POCS, LatencyHistogram::new).recordNanos(latencyNanos);
+        }
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(System.currentTimeMillis(), (System.nanoTime() - startNanos) / 1_000_000,
+                requestsStarted.sum(), requestsCompleted.sum(), resultsDelivered.sum(), recentRate(),
+                inFlight, queueDepth, timeouts.sum(), sums(errorsByType), latency.snapshot(),
+                snapshots(hostLatency), sums(hostRequests), sums(hostErrors), snapshots(pocLatency));
+    }
+
+    // 键的数量达到上限后，新的键都计入OTHER
+    private static <T> T bounded(ConcurrentHashMap<String, T> map, String key, int limit,
+                                 Supplier<T> factory) {
+        T value = map.get(key);
+        if (value != null) {
+            return value;
+        }
+        return map.computeIfAbsent(boundedKey(map, key, limit), k -> factory.get());
+    }
+
+    private static String boundedKey(Map<String, ?> map, String key, int limit) {
+        return map.containsKey(key) || map.size() < limit ? key : OTHER;
+    }
+
+    private void markSecond() {
+        long second = (System.nanoTime() - startNanos) / 1_000_000_000L + 1;
+        int slot = (int) (second % RATE_SLOTS);
+        long stamp = secondStamps.get(slot);
+        if (stamp != second && secondStamps.compareAndSet(slot, stamp, second)) {
+            // 该槽位上次使用已是多秒之前，重新计数
+            secondCounts.set(slot, 0);
+        }
+        secondCounts.incrementAndGet(slot);
+    }
+
+    // 最近RATE_WINDOW_SECONDS个完整秒的平均吞吐量，扫描刚开始时按已经过的时间计算
+    private double recentRate() {
+        long current = (System.nanoTime() - startNanos) / 1_000_000_000L + 1;
+        long total = 0;
+        int seconds = 0;
+        for (long second = current - 1; second >= 1 && seconds < RATE_WINDOW_SECONDS; second--, seconds++) {
+            int slot = (int) (second % RATE_SLOTS);
+            if (secondStamps.get(slot) == second) {
+                total += secondCounts.get(slot);
+            }
+        }
+        return seconds == 0 ? 0 : (double) total / seconds;
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static Map<String, LatencySnapshot> snapshots(Map<String, LatencyHistogram> histograms) {
+        Map<String, LatencySnapshot> result = new HashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,42 @@
+package com.pocscanner.core;
+
+import com.pocscanner.core.model.POCConfig;
+import com.pocscanner.core.model.ScanResult;
+
+import java.util.List;
+
+/**
+ * 单个扫描任务：一个目标上执行一组请求相同的POC，只发送一次请求
+ */
+public class ScanTask {
+    private final String target;
+    private final String host;
+    private final POCSet pocSet;
+    private List<ScanResult> results;
+    private Throwable error;
+
+    public ScanTask(String target, String host, POCSet pocSet) {
+        this.target = target;
+        this.host = host;
+        this.pocSet = pocSet;
+    }
+
+    public String getTarget() { return target; }
+
+    public String getHost() { return host; }
+
+    public POCSet getPocSet() { return pocSet; }
+
+    // 发送请求使用的POC
+    public POCConfig getPoc() { return pocSet.getRequestPoc(); }
+
+    // 每个POC一个结果，顺序与POC集合相同
+    public List<ScanResult> getResults() { return results; }
+    public void setResults(List<ScanResult> results) { this.results = results; }
+
+    // 第一个POC的结果；同一任务的POC共用一个响应，状态码、耗时、超时等请求信息都相同
+    public ScanResult getResult() { return results != null && !results.isEmpty() ? results.get(0) : null; }
+
+    public Throwable getError() { return error; }
+    public void setError(Throwable error) { this.error = error; }
+}
@@ -1,38 +1,119 @@
 package com.pocscanner.core;
 
 import com.pocscanner.core.model.POCConfig;
+import com.pocscanner.core.model.ScanProgress;
 import com.pocscanner.core.model.ScanRequest;
 import com.pocscanner.core.model.ScanResult;
+import com.pocscanner.http.HttpClient;
+import com.pocscanner.http.ResponseCache;
+import com.pocscanner.http.TimingStats;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
 
 public class ScannerEngine {
+    private static final int TARGET_QUEUE_CAPACITY = 1024; // 目标缓冲队列容量
+    private static final String END_OF_TARGETS = new String("<end>"); // 目标读取结束标记
+    private static final long POLL_INTERVAL_MS = 50; // 等待目标或任务完成时的轮询间隔
+    private static final int TIMING_LOG_HOSTS = 10; // 扫描结束时输出耗时统计的主机数
+
     private POCLoader pocLoader;
     private ExecutorService executorService;
     private POCEngine pocEngine;
     private List<ScanResult> scanResults;
+    private int threadCount = 10;
+    private int maxConcurrencyPerHost = 4; // 单个主机同时进行的最大请求数
+    private boolean adaptiveConcurrency; // 是否根据响应时间和超时自动调整并发数
+    private boolean asyncMode; // 是否使用异步请求，请求等待期间不占用扫描线程
+    private int maxInFlight = 64; // 异步模式下同时进行的最大请求数
+    private boolean virtualThreads; // 是否使用虚拟线程执行任务（JDK 21+）
+    private boolean preferHttp2; // HTTPS目标是否优先使用HTTP/2
+    private int maxStreamsPerConnection = 16; // HTTP/2下每个连接的最大并发流数
+    private long responseCacheSize; // 每次扫描的GET响应缓存大小（字节），0表示不缓存
+    private Set<String> cacheIgnoredHeaders; // 不参与缓存键的请求头
+    private final ScanMetrics metrics = new ScanMetrics(); // 当前扫描的指标，每次扫描开始时清空
+    private MetricsServer metricsServer; // Prometheus指标服务，未启动时为null
 
     public ScannerEngine(String pocDirectory) {
         this.pocLoader = new POCLoader();
         this.pocEngine = new POCEngine();
-        this.executorService = Executors.newFixedThreadPool(10); // 默认10个线程
+        this.executorService = createExecutor(); // 默认10个线程
         this.scanResults = new ArrayList<>();
     }
 
     public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+        recreateExecutor();
+    }
+
+    /**
+     * 使用虚拟线程执行扫描任务：每个任务一个虚拟线程，同时执行的任务数仍受线程数
+     * （以及单主机并发、自适应上限）限制，但不再占用等量的系统线程。
+     * 当前JVM不支持虚拟线程时回退到固定大小的线程池。
+     *
+     * @return 是否实际启用了虚拟线程
+     */
+    public boolean setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads && VirtualThreads.isAvailable();
+        recreateExecutor();
+        return this.virtualThreads;
+    }
+
+    private void recreateExecutor() {
         // 重新创建线程池
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
         }
-        this.executorService = Executors.newFixedThreadPool(threadCount);
+        this.executorService = createExecutor();
+    }
+
+    private ExecutorService createExecutor() {
+        if (virtualThreads) {
+            ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                return executor;
+            }
+            virtualThreads = false;
+        }
+        return Executors.newFixedThreadPool(threadCount);
+    }
+
+    /**
+     * 启用后线程数和单主机并发数作为上限，实际并发由ConcurrencyLimiter
+     * 根据响应时间和超时率动态增减（全局和每个主机分别控制）
+     */
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    /**
+     * 异步模式：请求通过HttpClient.sendRequestAsync排队发送，扫描线程不阻塞等待响应，
+     * 并发上限由setMaxInFlight决定而不受线程数限制。
+     * 等待响应头期间每个请求仍占用一个OkHttp调度器线程（以maxInFlight为上限），
+     * 响应体读取和匹配在固定大小的共享线程池中执行
+     */
+    public void setAsyncMode(boolean asyncMode) {
+        this.asyncMode = asyncMode;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        pocEngine.setMaxInFlight(this.maxInFlight);
+    }
+
+    public void setMaxConcurrencyPerHost(int maxConcurrencyPerHost) {
+        this.maxConcurrencyPerHost = Math.max(1, maxConcurrencyPerHost);
     }
 
     public void setProxy(String proxyHost, int proxyPort) {
         pocEngine.setProxy(proxyHost, proxyPort);
     }
-    
+
     public void setProxy(String proxyHost, int proxyPort, String proxyType) {
         pocEngine.setProxy(proxyHost, proxyPort, proxyType);
     }
@@ -41,45 +122,362 @@ public class ScannerEngine {
         pocEngine.setTimeout(timeout);
     }
 
+    /**
+     * HTTP/2优先模式：支持h2的HTTPS主机上所有POC请求在一个连接上多路复用，
+     * 这类主机的并发上限由maxStreamsPerConnection决定而不是单主机并发数。
+     * 多路复用需要连接复用，未开启setKeepAlive时每个请求仍使用新连接，并发上限保持单主机并发数
+     */
+    public void setPreferHttp2(boolean preferHttp2) {
+        this.preferHttp2 = preferHttp2;
+        pocEngine.setPreferHttp2(preferHttp2);
+    }
+
+    public void setMaxStreamsPerConnection(int maxStreamsPerConnection) {
+        this.maxStreamsPerConnection = Math.max(1, maxStreamsPerConnection);
+    }
+
+    // 是否复用连接（默认关闭，每个请求使用新连接并发送Connection: close），开启后同一主机的请求通过连接池复用连接
+    public void setKeepAlive(boolean keepAlive) {
+        pocEngine.setKeepAlive(keepAlive);
+    }
+
+    public void setConnectionPool(int maxIdleConnections, long keepAliveMillis) {
+        pocEngine.setConnectionPool(maxIdleConnections, keepAliveMillis);
+    }
+
+    // 响应体读取上限（字节），<=0表示不限制
+    public void setMaxBodySize(long maxBodySize) {
+        pocEngine.setMaxBodySize(maxBodySize);
+    }
+
+    // JDK正则引擎每次匹配的步数上限，<=0表示不限制（默认）
+    public void setRegexStepLimit(long regexStepLimit) {
+        pocEngine.setRegexStepLimit(regexStepLimit);
+    }
+
+    /**
+     * 设置每次扫描的GET响应缓存：URL和请求头都相同的GET请求只发送一次，之后使用缓存的响应。
+     * 缓存只在一次扫描内有效，扫描结束后释放。
+     *
+     * @param maxBytes       缓存的响应体总大小（字节），不大于0时关闭缓存
+     * @param ignoredHeaders 不参与缓存键的请求头名称（如User-Agent、Accept），只有这些请求头不同的请求视为相同
+     */
+    public void setResponseCache(long maxBytes, Set<String> ignoredHeaders) {
+        this.responseCacheSize = maxBytes;
+        this.cacheIgnoredHeaders = ignoredHeaders;
+    }
+
     public List<ScanResult> scan(ScanRequest request, ScanListener listener) {
         // 清空之前的结果
         scanResults.clear();
-        
-        // 加载POC
+        scanStreaming(request, listener, scanResults::add);
+        return scanResults;
+    }
+
+    /**
+     * 流式扫描：每个检测完成后立即按完成顺序推送给监听器和结果接收器，
+     * 引擎本身不保存结果列表，适合大规模目标扫描。
+     *
+     * @return 已投递的结果数量
+     */
+    public long scanStreaming(ScanRequest request, ScanListener listener, ResultSink... sinks) {
+        // 加载POC，整个扫描过程只加载一次，所有目标共用
         List<POCConfig> pocs = pocLoader.loadPOCsFromDirectory(request.getSelectedPOCs());
         if (pocs.isEmpty()) {
             listener.onLog("没有找到有效的POC文件");
-            return scanResults;
+            return 0;
         }
-        
+
         listener.onLog("加载了 " + pocs.size() + " 个POC");
-        
-        // 创建任务列表
-        List<Future<ScanResult>> futures = new ArrayList<>();
-        
-        // 提交扫描任务
-        for (POCConfig poc : pocs) {
-            Future<ScanResult> future = executorService.submit(() -> {
-                listener.onLog("开始扫描: " + poc.getName());
-                ScanResult result = pocEngine.execute(poc, request.getTarget());
-                listener.onProgress(1);
-                return result;
+
+        try (TargetSource targets = openTargetSource(request)) {
+            return scanStreaming(targets, pocs, listener, sinks);
+        } catch (IOException e) {
+            listener.onLog("读取扫描目标失败: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 对目标来源执行全部POC并返回本次扫描的所有结果。结果全部保存在内存中，
+     * 占用随 目标数 × POC数 增长；大规模扫描应使用scanStreaming并通过ResultSink处理结果。
+     */
+    public List<ScanResult> scan(TargetSource targets, List<POCConfig> pocs, ScanListener listener) {
+        scanResults.clear();
+        scanStreaming(targets, pocs, listener, scanResults::add);
+        return scanResults;
+    }
+
+    /**
+     * 对目标来源中的每个目标执行全部POC（目标 × POC 矩阵）。
+     * 目标由后台线程经有界队列逐个读入，同时活跃的目标数也有上限，
+     * 因此无论目标列表多大，内存占用都保持平稳。
+     * 任务由HostScheduler在各主机间轮转分配，每个主机的并发请求数受限；
+     * 结果按完成顺序投递，慢速POC不会阻塞其他结果。
+     * 异步模式下请求不占用扫描线程，全局并发上限为maxInFlight而不是线程数。
+     * 请求完全相同的POC合并为一个任务，对每个目标只发送一次请求。
+     */
+    public long scanStreaming(TargetSource targets, List<POCConfig> pocs, ScanListener listener, ResultSink... sinks) {
+        List<POCSet> pocSets = POCSet.groupByRequest(pocs);
+        if (pocSets.size() < pocs.size()) {
+            listener.onLog(pocs.size() + " 个POC合并为 " + pocSets.size() + " 个不同的请求");
+        }
+        pocEngine.getTimingStats().reset();
+        metrics.reset();
+        ResponseCache responseCache = responseCacheSize > 0 ? new ResponseCache(responseCacheSize, cacheIgnoredHeaders) : null;
+        pocEngine.setResponseCache(responseCache);
+        BlockingQueue<String> targetQueue = new ArrayBlockingQueue<>(TARGET_QUEUE_CAPACITY);
+        Thread feeder = startTargetFeeder(targets, targetQueue, listener);
+        // 已完成的任务按完成顺序进入该队列
+        BlockingQueue<ScanTask> completed = new LinkedBlockingQueue<>();
+        HostScheduler scheduler = new HostScheduler(pocSets, maxConcurrencyPerHost);
+        scheduler.setAdaptive(adaptiveConcurrency);
+        // 不复用连接时每个流都是一个新连接，不能按多路复用放宽单主机上限
+        if (preferHttp2 && pocEngine.getHttpClient().isKeepAlive()) {
+            scheduler.setMaxStreamsPerConnection(maxStreamsPerConnection);
+        }
+        int maxConcurrency = asyncMode ? maxInFlight : threadCount;
+        ConcurrencyLimiter globalLimiter = adaptiveConcurrency
+                ? new ConcurrencyLimiter(1, maxConcurrency, Math.min(maxConcurrency, maxConcurrencyPerHost))
+                : null;
+        ScanStats stats = new ScanStats(maxConcurrency);
+
+        // 活跃目标足够多时，即使部分主机较慢或达到单主机上限，并发名额也能被其他主机填满
+        int maxActiveTargets = Math.max(1, maxConcurrency * 2);
+        boolean targetsExhausted = false;
+        long delivered = 0;
+        int targetCount = 0;
+
+        try {
+            while (true) {
+                // 补充活跃目标
+                while (!targetsExhausted && scheduler.getActiveTargets() < maxActiveTargets) {
+                    String target = targetQueue.poll();
+                    if (target == null) {
+                        break;
+                    }
+                    if (target == END_OF_TARGETS) {
+                        targetsExhausted = true;
+                    } else {
+                        scheduler.addTarget(target);
+                        targetCount++;
+                    }
+                }
+
+                // 在全局并发上限内尽量提交任务
+                ScanTask task;
+                int limit = globalLimiter != null ? globalLimiter.getLimit() : maxConcurrency;
+                while (scheduler.getInFlight() < limit && (task = scheduler.next()) != null) {
+                    submit(completed, task, listener);
+                }
+                metrics.setInFlight(scheduler.getInFlight());
+                metrics.setQueueDepth(targetQueue.size());
+
+                if (scheduler.getInFlight() == 0) {
+                    if (targetsExhausted) {
+                        break;
+                    }
+                    // 没有可执行的任务，等待新的目标
+                    String target = targetQueue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (target == END_OF_TARGETS) {
+                        targetsExhausted = true;
+                    } else if (target != null) {
+                        scheduler.addTarget(target);
+                        targetCount++;
+                    }
+                    continue;
+                }
+
+                // 等待任务完成；活跃目标不足时限时等待，以便及时补充新目标
+                boolean needTargets = !targetsExhausted && scheduler.getActiveTargets() < maxActiveTargets;
+                ScanTask done = needTargets
+                        ? completed.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)
+                        : completed.take();
+                while (done != null) {
+                    delivered += deliver(done, scheduler, globalLimiter, stats, listener, sinks);
+                    done = completed.poll();
+                }
+                metrics.setInFlight(scheduler.getInFlight());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            feeder.interrupt();
+            listener.onLog("扫描被中断，放弃 " + scheduler.getInFlight() + " 个未完成的任务");
+        }
+
+        metrics.setInFlight(0);
+        metrics.setQueueDepth(0);
+        listener.onLog("共扫描 " + targetCount + " 个目标");
+        logTimings(listener);
+        if (responseCache != null) {
+            listener.onLog("响应缓存命中 " + responseCache.getHits() + " 次，未命中 " + responseCache.getMisses() + " 次");
+            pocEngine.setResponseCache(null);
+            responseCache.clear();
+        }
+        return delivered;
+    }
+
+    private void submit(BlockingQueue<ScanTask> completed, ScanTask task, ScanListener listener) {
+        listener.onLog("开始扫描: " + describe(task.getPocSet()) + " -> " + task.getTarget());
+        metrics.onRequestStarted();
+        if (asyncMode) {
+            pocEngine.executeAsync(task.getPocSet(), task.getTarget()).whenComplete((results, error) -> {
+                task.setResults(results);
+                task.setError(error);
+                listener.onProgress(task.getPocSet().size());
+                completed.add(task);
             });
-            futures.add(future);
+            return;
         }
-        
-        // 收集结果
-        for (Future<ScanResult> future : futures) {
+
+        executorService.execute(() -> {
             try {
-                ScanResult result = future.get();
-                scanResults.add(result);
-                listener.onResult(result);
-            } catch (InterruptedException | ExecutionException e) {
-                listener.onLog("扫描任务执行失败: " + e.getMessage());
+                task.setResults(pocEngine.execute(task.getPocSet(), task.getTarget()));
+                listener.onProgress(task.getPocSet().size());
+            } catch (RuntimeException e) {
+                task.setError(e);
+            } finally {
+                completed.add(task);
             }
+        });
+    }
+
+    // 释放任务占用的主机名额，并将结果投递给监听器和所有结果接收器
+    private int deliver(ScanTask task, HostScheduler scheduler, ConcurrencyLimiter globalLimiter,
+                        ScanStats stats, ScanListener listener, ResultSink... sinks) {
+        scheduler.complete(task);
+        if (globalLimiter != null) {
+            globalLimiter.onResult(task.getResult());
         }
-        
-        return scanResults;
+        stats.completed += task.getPocSet().size();
+        if (task.getResult() != null && task.getResult().isTimedOut()) {
+            stats.timeouts++;
+        }
+        listener.onProgress(new ScanProgress(stats.completed, scheduler.getInFlight(),
+                globalLimiter != null ? globalLimiter.getLimit() : stats.maxConcurrency,
+                scheduler.getActiveHosts(), scheduler.getActiveTargets(), stats.timeouts, globalLimiter != null));
+
+        ScanResult first = task.getResult();
+        long latencyNanos = latencyOf(first);
+        metrics.onRequestCompleted(task.getHost(), latencyNanos, first != null && first.isTimedOut(),
+                task.getError() != null ? task.getError().getClass().getSimpleName()
+                        : first != null ? first.getErrorType() : null);
+
+        if (task.getError() != null) {
+            listener.onLog("扫描任务执行失败: " + describe(task.getPocSet()) + " -> " + task.getTarget()
+                    + ": " + task.getError().getMessage());
+            return 0;
+        }
+        for (ScanResult result : task.getResults()) {
+            metrics.onResult(result, latencyNanos);
+            listener.onResult(result);
+            for (ResultSink sink : sinks) {
+                sink.accept(result);
+            }
+        }
+        return task.getResults().size();
+    }
+
+    // 请求耗时（纳秒）：优先使用阶段计时的总耗时；失败、来自缓存或没有结果时返回-1，不计入延迟统计
+    private static long latencyOf(ScanResult result) {
+        if (result == null || result.isFromCache() || result.getErrorType() != null) {
+            return -1;
+        }
+        if (result.getTimings() != null && result.getTimings().getTotalNanos() > 0) {
+            return result.getTimings().getTotalNanos();
+        }
+        return TimeUnit.MILLISECONDS.toNanos(result.getResponseTime());
+    }
+
+    /**
+     * 当前扫描的指标，可在扫描过程中随时调用snapshot()读取
+     */
+    public ScanMetrics getMetrics() {
+        return metrics;
+    }
+
+    // 按请求数输出前几个主机的阶段耗时，便于判断时间花在DNS、连接、TLS、等待响应还是传输响应体上
+    private void logTimings(ScanListener listener) {
+        List<TimingStats.HostTimings> hosts = new ArrayList<>(pocEngine.getTimingStats().getHosts().values());
+        hosts.sort((a, b) -> Long.compare(b.getRequests(), a.getRequests()));
+        for (int i = 0; i < hosts.size() && i < TIMING_LOG_HOSTS; i++) {
+            listener.onLog("耗时统计 " + hosts.get(i));
+        }
+        if (hosts.size() > TIMING_LOG_HOSTS) {
+            listener.onLog("另有 " + (hosts.size() - TIMING_LOG_HOSTS) + " 个主机的耗时统计未显示");
+        }
+    }
+
+    // 按主机汇总的请求阶段耗时，扫描开始时清空
+    public TimingStats getTimingStats() {
+        return pocEngine.getTimingStats();
+    }
+
+    // 连接池和调度器的状态由指标服务读取
+    HttpClient getHttpClient() {
+        return pocEngine.getHttpClient();
+    }
+
+    /**
+     * 在本机回环地址上启动Prometheus格式的指标服务（/metrics），端口为0时自动分配。
+     * 已启动的服务会先关闭；引擎shutdown时自动停止。
+     */
+    public synchronized MetricsServer startMetricsServer(int port) throws IOException {
+        stopMetricsServer();
+        metricsServer = new MetricsServer(this, port);
+        return metricsServer;
+    }
+
+    public synchronized void stopMetricsServer() {
+        if (metricsServer != null) {
+            metricsServer.close();
+            metricsServer = null;
+        }
+    }
+
+    // 日志中显示的任务名称：单个POC显示名称，合并的请求显示第一个POC名称和POC数量
+    private static String describe(POCSet pocSet) {
+        String name = pocSet.getRequestPoc().getName();
+        return pocSet.size() == 1 ? name : name + " 等" + pocSet.size() + "个POC";
+    }
+
+    // 根据扫描请求创建目标来源：优先使用目标文件，其次是目标列表，最后是单个目标
+    private TargetSource openTargetSource(ScanRequest request) throws IOException {
+        if (request.getTargetFile() != null && !request.getTargetFile().trim().isEmpty()) {
+            return TargetSource.fromFile(request.getTargetFile().trim());
+        }
+        if (request.getTargets() != null && !request.getTargets().isEmpty()) {
+            return TargetSource.fromList(request.getTargets());
+        }
+        if (request.getTarget() != null) {
+            // 单个目标输入框中允许用逗号或空白分隔多个目标
+            return TargetSource.fromList(Arrays.asList(request.getTarget().split("[,\\s]+")));
+        }
+        return TargetSource.fromList(Collections.<String>emptyList());
+    }
+
+    // 启动后台线程，从目标来源读取目标放入有界队列，队列满时阻塞等待
+    private Thread startTargetFeeder(TargetSource targets, BlockingQueue<String> targetQueue, ScanListener listener) {
+        Thread feeder = new Thread(() -> {
+            try {
+                String target;
+                while ((target = targets.nextTarget()) != null) {
+                    targetQueue.put(target);
+                }
+            } catch (IOException e) {
+                listener.onLog("读取扫描目标失败: " + e.getMessage());
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                targetQueue.put(END_OF_TARGETS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "target-feeder");
+        feeder.setDaemon(true);
+        feeder.start();
+        return feeder;
     }
 
     public List<ScanResult> getScanResults() {
@@ -90,11 +488,28 @@ public class ScannerEngine {
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
         }
+        pocEngine.release();
+        stopMetricsServer();
     }
 
     public interface ScanListener {
         void onLog(String message);
         void onProgress(int progress);
         void onResult(com.pocscanner.core.model.ScanResult result);
+
+        // 每个任务完成后调用，包含当前并发上限等调度状态
+        default void onProgress(ScanProgress progress) {
+        }
+    }
+
+    // 单次扫描的计数，只在调度线程中访问
+    private static class ScanStats {
+        private final int maxConcurrency;
+        private long completed;
+        private long timeouts;
+
+        private ScanStats(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
     }
-}
\ No newline at end of file
+}
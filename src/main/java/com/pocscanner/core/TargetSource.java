@@ -0,0 +1,74 @@
+package com.pocscanner.core;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 扫描目标来源，按需逐个提供目标，避免一次性把整个目标列表读入内存
+ */
+public interface TargetSource extends Closeable {
+
+    // 返回下一个目标，没有更多目标时返回null
+    String nextTarget() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    static TargetSource fromList(List<String> targets) {
+        return fromIterator(targets != null ? targets.iterator() : Collections.<String>emptyIterator());
+    }
+
+    static TargetSource fromIterator(Iterator<String> iterator) {
+        return () -> {
+            while (iterator.hasNext()) {
+                String target = normalize(iterator.next());
+                if (target != null) {
+                    return target;
+                }
+            }
+            return null;
+        };
+    }
+
+    // 逐行读取目标文件，忽略空行和以#开头的注释行
+    static TargetSource fromFile(String filePath) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8);
+        return new TargetSource() {
+            @Override
+            public String nextTarget() throws IOException {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String target = normalize(line);
+                    if (target != null) {
+                        return target;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    static String normalize(String line) {
+        if (line == null) {
+            return null;
+        }
+        String target = line.trim();
+        if (target.isEmpty() || target.startsWith("#")) {
+            return null;
+        }
+        return target;
+    }
+}
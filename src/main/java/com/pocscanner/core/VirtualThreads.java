@@ -0,0 +1,40 @@
+package com.pocscanner.core;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程支持（JDK 21+）。项目以Java 8为编译目标，因此通过反射在运行时检测，
+ * 旧版本JVM上isAvailable()返回false，调用方应回退到固定大小的线程池。
+ */
+public final class VirtualThreads {
+    private static final Method NEW_EXECUTOR = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return NEW_EXECUTOR != null;
+    }
+
+    // 创建每个任务一个虚拟线程的执行器；当前JVM不支持时返回null
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke(null);
+        } catch (Exception e) {
+            System.err.println("创建虚拟线程执行器失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Method findFactory() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.pocscanner.core.model;
+
+/**
+ * 延迟直方图的快照，时间单位为毫秒，分位值为所在桶的上界（相对误差约6%）
+ */
+public class LatencySnapshot {
+    private final long count;
+    private final double sumMillis;
+    private final double maxMillis;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double p999;
+
+    public LatencySnapshot(long count, double sumMillis, double maxMillis,
+                           double p50, double p90, double p99, double p999) {
+        this.count = count;
+        this.sumMillis = sumMillis;
+        this.maxMillis = maxMillis;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    // Getters
+    public long getCount() { return count; }
+
+    public double getSumMillis() { return sumMillis; }
+
+    public double getMeanMillis() { return count == 0 ? 0 : sumMillis / count; }
+
+    public double getMaxMillis() { return maxMillis; }
+
+    public double getP50() { return p50; }
+
+    public double getP90() { return p90; }
+
+    public double getP99() { return p99; }
+
+    public double getP999() { return p999; }
+}
@@ -0,0 +1,90 @@
+package com.pocscanner.core.model;
+
+import java.util.Map;
+
+/**
+ * 扫描指标的只读快照，由ScanMetrics.snapshot()生成，可在任意线程中读取
+ */
+public class MetricsSnapshot {
+    private final long timestamp; // 生成快照的时间（毫秒）
+    private final long elapsedMillis; // 扫描开始至今的时间
+    private final long requestsStarted;
+    private final long requestsCompleted;
+    private final long resultsDelivered;
+    private final double requestsPerSecond; // 最近10秒的平均吞吐量
+    private final int inFlight;
+    private final int queueDepth; // 已读入、等待调度的目标数
+    private final long timeouts;
+    private final Map<String, Long> errorsByType;
+    private final LatencySnapshot latency;
+    private final Map<String, LatencySnapshot> hostLatency;
+    private final Map<String, Long> hostRequests;
+    private final Map<String, Long> hostErrors;
+    private final Map<String, LatencySnapshot> pocLatency;
+
+    public MetricsSnapshot(long timestamp, long elapsedMillis, long requestsStarted, long requestsCompleted,
+                           long resultsDelivered, double requestsPerSecond, int inFlight, int queueDepth,
+                           long timeouts, Map<String, Long> errorsByType, LatencySnapshot latency,
+                           Map<String, LatencySnapshot> hostLatency, Map<String, Long> hostRequests,
+                           Map<String, Long> hostErrors, Map<String, LatencySnapshot> pocLatency) {
+        this.timestamp = timestamp;
+        this.elapsedMillis = elapsedMillis;
+        this.requestsStarted = requestsStarted;
+        this.requestsCompleted = requestsCompleted;
+        this.resultsDelivered = resultsDelivered;
+        this.requestsPerSecond = requestsPerSecond;
+        this.inFlight = inFlight;
+        this.queueDepth = queueDepth;
+        this.timeouts = timeouts;
+        this.errorsByType = errorsByType;
+        this.latency = latency;
+        this.hostLatency = hostLatency;
+        this.hostRequests = hostRequests;
+        this.hostErrors = hostErrors;
+        this.pocLatency = pocLatency;
+    }
+
+    // Getters
+    public long getTimestamp() { return timestamp; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public long getRequestsStarted() { return requestsStarted; }
+
+    public long getRequestsCompleted() { return requestsCompleted; }
+
+    public long getResultsDelivered() { return resultsDelivered; }
+
+    public double getRequestsPerSecond() { return requestsPerSecond; }
+
+    // 扫描开始以来的平均吞吐量
+    public double getAverageRequestsPerSecond() {
+        return elapsedMillis <= 0 ? 0 : requestsCompleted * 1000.0 / elapsedMillis;
+    }
+
+    public int getInFlight() { return inFlight; }
+
+    public int getQueueDepth() { return queueDepth; }
+
+    public long getTimeouts() { return timeouts; }
+
+    public Map<String, Long> getErrorsByType() { return errorsByType; }
+
+    public long getErrors() {
+        long total = 0;
+        for (long count : errorsByType.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public LatencySnapshot getLatency() { return latency; }
+
+    public Map<String, LatencySnapshot> getHostLatency() { return hostLatency; }
+
+    public Map<String, Long> getHostRequests() { return hostRequests; }
+
+    public Map<String, Long> getHostErrors() { return hostErrors; }
+
+    public Map<String, LatencySnapshot> getPocLatency() { return pocLatency; }
+}
@@ -36,6 +36,8 @@ public class POCConfig {
         private Map<String, String> headers;
         private String body;
         private Map<String, String> params;
+        private Boolean freshConnection; // 为true时不复用连接，每次使用新连接并发送Connection: close
+        private Boolean allowHead; // 为true且POC只检查状态码和响应头时，GET请求改用HEAD发送
 
         // Getters and Setters
         public String getMethod() { return method; }
@@ -52,13 +54,24 @@ public class POCConfig {
 
         public Map<String, String> getParams() { return params; }
         public void setParams(Map<String, String> params) { this.params = params; }
+
+        public Boolean getFreshConnection() { return freshConnection; }
+        public void setFreshConnection(Boolean freshConnection) { this.freshConnection = freshConnection; }
+
+        public Boolean getAllowHead() { return allowHead; }
+        public void setAllowHead(Boolean allowHead) { this.allowHead = allowHead; }
     }
 
     public static class Response {
         private List<String> successIndicators;
         private List<String> errorIndicators;
         private Integer statusCode;
+        private Map<String, String> headerIndicators; // 响应头匹配：名称不区分大小写，值需包含指定内容，全部满足才算命中
         private String matchType;  // "contains"、"equals" 或 "regex"
+        private String regexMode; // regex匹配方式："fullmatch"（整个响应体匹配，默认）或 "find"（包含匹配的部分即可）
+        private String regexEngine; // regex引擎："jdk"（默认）或 "re2"（线性时间，不支持反向引用和环视）
+        private Integer maxBodySize; // 响应体读取上限（字节），不设置时使用全局设置
+        private Long regexStepLimit; // JDK正则引擎每次匹配的步数上限，不大于0时不限制，不设置时使用全局设置
 
         // Getters and Setters
         public List<String> getSuccessIndicators() { return successIndicators; }
@@ -70,7 +83,22 @@ public class POCConfig {
         public Integer getStatusCode() { return statusCode; }
         public void setStatusCode(Integer statusCode) { this.statusCode = statusCode; }
 
+        public Map<String, String> getHeaderIndicators() { return headerIndicators; }
+        public void setHeaderIndicators(Map<String, String> headerIndicators) { this.headerIndicators = headerIndicators; }
+
         public String getMatchType() { return matchType != null ? matchType : "contains"; }
         public void setMatchType(String matchType) { this.matchType = matchType; }
+
+        public String getRegexMode() { return regexMode != null ? regexMode : "fullmatch"; }
+        public void setRegexMode(String regexMode) { this.regexMode = regexMode; }
+
+        public String getRegexEngine() { return regexEngine != null ? regexEngine : "jdk"; }
+        public void setRegexEngine(String regexEngine) { this.regexEngine = regexEngine; }
+
+        public Integer getMaxBodySize() { return maxBodySize; }
+        public void setMaxBodySize(Integer maxBodySize) { this.maxBodySize = maxBodySize; }
+
+        public Long getRegexStepLimit() { return regexStepLimit; }
+        public void setRegexStepLimit(Long regexStepLimit) { this.regexStepLimit = regexStepLimit; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.pocscanner.core.model;
+
+/**
+ * 扫描进度快照，每个任务完成后由扫描引擎发出
+ */
+public class ScanProgress {
+    private final long completed;
+    private final int inFlight;
+    private final int concurrencyLimit;
+    private final int activeHosts;
+    private final int activeTargets;
+    private final long timeouts;
+    private final boolean adaptive;
+
+    public ScanProgress(long completed, int inFlight, int concurrencyLimit, int activeHosts,
+                        int activeTargets, long timeouts, boolean adaptive) {
+        this.completed = completed;
+        this.inFlight = inFlight;
+        this.concurrencyLimit = concurrencyLimit;
+        this.activeHosts = activeHosts;
+        this.activeTargets = activeTargets;
+        this.timeouts = timeouts;
+        this.adaptive = adaptive;
+    }
+
+    // Getters
+    public long getCompleted() { return completed; }
+
+    public int getInFlight() { return inFlight; }
+
+    public int getConcurrencyLimit() { return concurrencyLimit; }
+
+    public int getActiveHosts() { return activeHosts; }
+
+    public int getActiveTargets() { return activeTargets; }
+
+    public long getTimeouts() { return timeouts; }
+
+    public boolean isAdaptive() { return adaptive; }
+}
@@ -1,7 +1,11 @@
 package com.pocscanner.core.model;
 
+import java.util.List;
+
 public class ScanRequest {
     private String target;
+    private List<String> targets; // 多目标列表
+    private String targetFile; // 目标文件，每行一个目标
     private String selectedPOCs;
     private int threadCount;
     private int timeout;
@@ -15,6 +19,12 @@ public class ScanRequest {
     public String getTarget() { return target; }
     public void setTarget(String target) { this.target = target; }
 
+    public List<String> getTargets() { return targets; }
+    public void setTargets(List<String> targets) { this.targets = targets; }
+
+    public String getTargetFile() { return targetFile; }
+    public void setTargetFile(String targetFile) { this.targetFile = targetFile; }
+
     public String getSelectedPOCs() { return selectedPOCs; }
     public void setSelectedPOCs(String selectedPOCs) { this.selectedPOCs = selectedPOCs; }
 
@@ -1,5 +1,8 @@
 package com.pocscanner.core.model;
 
+import com.pocscanner.http.RequestTimings;
+
+import java.nio.charset.Charset;
 import java.util.Map;
 
 public class ScanResult {
@@ -8,6 +11,8 @@ public class ScanResult {
     private long responseTime;
     private String statusCode;
     private String evidence;
+    private boolean timedOut; // 请求是否超时
+    private String errorType; // 请求失败时的异常类型，如ConnectException
     private String target;
     private String level;
     private String requestMethod;
@@ -18,6 +23,15 @@ public class ScanResult {
     private String requestBody;
     private Map<String, String> responseHeaders;
     private String responseBody;
+    // 未解码的响应体，第一次调用getResponseBody时才解码
+    private byte[] rawResponseBody;
+    private int rawResponseBodyLength;
+    private Charset responseCharset;
+    private String protocol; // 实际使用的HTTP协议，如http/1.1、h2
+    private boolean bodyTruncated; // 响应体未完整读取（超过上限或匹配结论已提前确定）
+    private boolean matchTimedOut; // 正则匹配超过步数上限被中止
+    private boolean fromCache; // 响应来自本次扫描的响应缓存
+    private RequestTimings timings; // 请求各阶段耗时和收发字节数
     // SSL/TLS相关信息
     private String sslProtocol;
     private String cipherSuite;
@@ -81,6 +95,22 @@ public class ScanResult {
         this.evidence = evidence;
     }
 
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    public String getErrorType() {
+        return errorType;
+    }
+
+    public void setErrorType(String errorType) {
+        this.errorType = errorType;
+    }
+
     public String getTarget() {
         return target;
     }
@@ -154,11 +184,63 @@ public class ScanResult {
     }
 
     public String getResponseBody() {
+        if (responseBody == null && rawResponseBody != null) {
+            responseBody = new String(rawResponseBody, 0, rawResponseBodyLength, responseCharset);
+        }
         return responseBody;
     }
 
     public void setResponseBody(String responseBody) {
         this.responseBody = responseBody;
+        this.rawResponseBody = null;
+    }
+
+    // 设置未解码的响应体，有效数据为[0, length)
+    public void setRawResponseBody(byte[] body, int length, Charset charset) {
+        this.responseBody = null;
+        this.rawResponseBody = body;
+        this.rawResponseBodyLength = length;
+        this.responseCharset = charset;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public void setProtocol(String protocol) {
+        this.protocol = protocol;
+    }
+
+    public boolean isBodyTruncated() {
+        return bodyTruncated;
+    }
+
+    public void setBodyTruncated(boolean bodyTruncated) {
+        this.bodyTruncated = bodyTruncated;
+    }
+
+    public boolean isMatchTimedOut() {
+        return matchTimedOut;
+    }
+
+    public void setMatchTimedOut(boolean matchTimedOut) {
+        this.matchTimedOut = matchTimedOut;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public void setFromCache(boolean fromCache) {
+        this.fromCache = fromCache;
+    }
+
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    public void setTimings(RequestTimings timings) {
+        this.timings = timings;
     }
 
     // SSL/TLS相关信息的Getter和Setter
@@ -508,7 +508,7 @@ public class POCManagerPanel extends JPanel {
         gbc.gridx = 1; gbc.gridy = row;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.weightx = 1.0;
-        String[] matchTypes = {"包含匹配", "完全等于", "正则表达式匹配"};
+        String[] matchTypes = {"包含匹配", "完全等于", "正则表达式匹配", "正则表达式查找"};
         final JComboBox<String> matchTypeComboBox = new JComboBox<>(matchTypes);
         matchTypeComboBox.setToolTipText("选择特征匹配方式");
         matchTypeComboBox.setSelectedIndex(0);
@@ -658,6 +658,8 @@ public class POCManagerPanel extends JPanel {
                 matchType = "regex";
             }
             response.setMatchType(matchType);
+            // 正则表达式查找：响应体中包含匹配的部分即可
+            response.setRegexMode(matchTypeComboBox.getSelectedIndex() == 3 ? "find" : null);
             
             // 成功特征
             String successText = successArea.getText().trim();
@@ -941,13 +943,13 @@ public class POCManagerPanel extends JPanel {
             gbc.gridx = 1; gbc.gridy = row;
             gbc.fill = GridBagConstraints.HORIZONTAL;
             gbc.weightx = 1.0;
-            String[] matchTypes = {"包含匹配", "完全等于", "正则表达式匹配"};
+            String[] matchTypes = {"包含匹配", "完全等于", "正则表达式匹配", "正则表达式查找"};
             final JComboBox<String> matchTypeComboBox = new JComboBox<>(matchTypes);
             matchTypeComboBox.setToolTipText("选择特征匹配方式");
             if (originalPoc.getResponse() != null && "equals".equals(originalPoc.getResponse().getMatchType())) {
                 matchTypeComboBox.setSelectedIndex(1);
             } else if (originalPoc.getResponse() != null && "regex".equals(originalPoc.getResponse().getMatchType())) {
-                matchTypeComboBox.setSelectedIndex(2);
+                matchTypeComboBox.setSelectedIndex("find".equals(originalPoc.getResponse().getRegexMode()) ? 3 : 2);
             } else {
                 matchTypeComboBox.setSelectedIndex(0);
             }
@@ -1117,6 +1119,8 @@ public class POCManagerPanel extends JPanel {
                     matchType = "regex";
                 }
                 response.setMatchType(matchType);
+                // 正则表达式查找：响应体中包含匹配的部分即可
+                response.setRegexMode(matchTypeComboBox.getSelectedIndex() == 3 ? "find" : null);
                 
                 // 成功特征
                 String successText = successArea.getText().trim();
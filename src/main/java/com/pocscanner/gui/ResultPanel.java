@@ -141,6 +141,15 @@ public class ResultPanel extends JPanel {
         tableModel.setResults(results);
     }
 
+    // 追加单条结果，扫描过程中结果完成即显示
+    public void addResult(ScanResult result) {
+        tableModel.addResult(result);
+    }
+
+    public void clearResults() {
+        tableModel.setResults(new java.util.ArrayList<>());
+    }
+
     private void displayResultDetails(ScanResult result) {
         // 构建请求信息
         StringBuilder requestInfo = new StringBuilder();
@@ -199,7 +208,7 @@ public class ResultPanel extends JPanel {
         String statusText = getStatusText(statusCodeInt);
         
         // 添加响应行
-        responseInfo.append("HTTP/1.1 ").append(statusCode).append(" ").append(statusText).append("\n");
+        responseInfo.append(formatProtocol(result.getProtocol())).append(" ").append(statusCode).append(" ").append(statusText).append("\n");
         
         // 显示响应头
         if (result.getResponseHeaders() != null && !result.getResponseHeaders().isEmpty()) {
@@ -244,6 +253,25 @@ public class ResultPanel extends JPanel {
         
         // 添加响应时间
         pocInfo.append("响应时间: ").append(result.getResponseTime()).append(" ms\n");
+
+        // 添加协议
+        if (result.getProtocol() != null) {
+            pocInfo.append("协议: ").append(formatProtocol(result.getProtocol())).append("\n");
+        }
+
+        // 响应体未完整读取时提示
+        if (result.isBodyTruncated()) {
+            pocInfo.append("响应体: 未完整读取（超过上限或匹配结果已确定）\n");
+        }
+        if (result.getTimings() != null) {
+            pocInfo.append("耗时: ").append(result.getTimings()).append("\n");
+        }
+        if (result.isFromCache()) {
+            pocInfo.append("响应: 来自本次扫描的响应缓存（相同的GET请求已发送过）\n");
+        }
+        if (result.isMatchTimedOut()) {
+            pocInfo.append("匹配: 正则表达式匹配超时（回溯过多），结果按未命中处理\n");
+        }
         
         // 添加请求摘要
         pocInfo.append("\n请求摘要:\n");
@@ -277,6 +305,22 @@ public class ResultPanel extends JPanel {
         pocArea.setText(pocInfo.toString());
     }
     
+    // 将OkHttp的协议标识转换为响应行中的格式
+    private String formatProtocol(String protocol) {
+        if (protocol == null) {
+            return "HTTP/1.1";
+        }
+        switch (protocol) {
+            case "h2":
+            case "h2_prior_knowledge":
+                return "HTTP/2";
+            case "http/1.0":
+                return "HTTP/1.0";
+            default:
+                return "HTTP/1.1";
+        }
+    }
+
     // 从URL中提取主机名
     private String extractHostFromUrl(String url) {
         if (url == null || url.isEmpty()) {
@@ -555,6 +599,12 @@ public class ResultPanel extends JPanel {
             fireTableDataChanged();
         }
         
+        public void addResult(ScanResult result) {
+            int row = results.size();
+            results.add(result);
+            fireTableRowsInserted(row, row);
+        }
+
         public ScanResult getResultAt(int row) {
             return results.get(row);
         }
@@ -1,6 +1,9 @@
 package com.pocscanner.gui;
 
 import com.pocscanner.core.ScannerEngine;
+import com.pocscanner.core.VirtualThreads;
+import com.pocscanner.core.model.MetricsSnapshot;
+import com.pocscanner.core.model.ScanProgress;
 import com.pocscanner.core.model.ScanRequest;
 
 import javax.swing.*;
@@ -12,14 +15,20 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class ScannerPanel extends JPanel {
     private JTextField targetField;
+    private JTextField targetFileField; // 目标文件（每行一个目标）
+    private JButton targetFileBrowseButton;
     private JTextField pocDirectoryField;
     private JButton browseButton;
     private JButton startButton;
     private JButton clearLogButton;
     private JProgressBar progressBar;
+    private JLabel metricsLabel; // 扫描过程中每秒刷新的吞吐量、延迟和错误统计
     private JTextArea logArea;
     private ResultPanel resultPanel;
     private JTextField proxyHostField;
@@ -28,6 +37,20 @@ public class ScannerPanel extends JPanel {
     private JCheckBox enableProxyCheckBox; // 新增代理启用复选框
     private JSlider threadCountSlider; // 新增线程数滑块
     private JLabel threadCountLabel; // 显示当前线程数的标签
+    private JSpinner perHostSpinner; // 单主机并发数
+    private JCheckBox adaptiveCheckBox; // 自适应并发
+    private JCheckBox asyncCheckBox; // 异步请求
+    private JSpinner maxInFlightSpinner; // 异步模式下的最大并发请求数
+    private JCheckBox virtualThreadCheckBox; // 虚拟线程（JDK 21+）
+    private JCheckBox keepAliveCheckBox; // 复用连接
+    private JSpinner maxIdleSpinner; // 连接池最大空闲连接数
+    private JSpinner keepAliveSecondsSpinner; // 空闲连接保留时间（秒）
+    private JCheckBox http2CheckBox; // HTTP/2优先
+    private JSpinner maxStreamsSpinner; // HTTP/2每连接最大并发流数
+    private JSpinner maxBodySpinner; // 响应体读取上限（KB）
+    private JSpinner responseCacheSpinner; // 每次扫描的GET响应缓存大小（MB），0为关闭
+    private JTextField cacheIgnoredHeadersField; // 不参与缓存键的请求头，逗号分隔
+    private JSpinner metricsPortSpinner; // Prometheus指标服务端口，0为关闭
 
     public ScannerPanel() {
         initializeComponents();
@@ -37,12 +60,15 @@ public class ScannerPanel extends JPanel {
 
     private void initializeComponents() {
         targetField = new JTextField(30);
+        targetFileField = new JTextField(30);
+        targetFileBrowseButton = new JButton("浏览");
         pocDirectoryField = new JTextField(30);
         pocDirectoryField.setText("./poc"); // 设置默认POC目录为./poc
         browseButton = new JButton("浏览");
         startButton = new JButton("开始扫描");
         clearLogButton = new JButton("清除日志");
         progressBar = new JProgressBar();
+        metricsLabel = new JLabel(" ");
         logArea = new JTextArea(10, 50);
         logArea.setEditable(false);
         proxyHostField = new JTextField(15);
@@ -65,6 +91,37 @@ public class ScannerPanel extends JPanel {
         threadCountSlider.setPaintTicks(true);
         threadCountSlider.setPaintLabels(true);
         threadCountLabel = new JLabel("线程数: 10");
+        perHostSpinner = new JSpinner(new SpinnerNumberModel(4, 1, 20, 1)); // 默认每个主机最多4个并发请求
+        adaptiveCheckBox = new JCheckBox("自适应并发");
+        adaptiveCheckBox.setToolTipText("根据响应时间和超时情况自动调整并发数，线程数和单主机并发数作为上限");
+        asyncCheckBox = new JCheckBox("异步请求");
+        asyncCheckBox.setToolTipText("请求等待响应期间不占用扫描线程，并发数由最大并发请求数决定");
+        maxInFlightSpinner = new JSpinner(new SpinnerNumberModel(64, 1, 5000, 16));
+        maxInFlightSpinner.setEnabled(false);
+        keepAliveCheckBox = new JCheckBox("复用连接(Keep-Alive)");
+        keepAliveCheckBox.setToolTipText("同一主机的请求复用连接；不勾选时（默认）每个请求都使用新连接并发送Connection: close");
+        maxIdleSpinner = new JSpinner(new SpinnerNumberModel(64, 0, 10000, 8));
+        maxIdleSpinner.setEnabled(false);
+        keepAliveSecondsSpinner = new JSpinner(new SpinnerNumberModel(30, 1, 600, 5));
+        keepAliveSecondsSpinner.setEnabled(false);
+        http2CheckBox = new JCheckBox("HTTP/2");
+        http2CheckBox.setToolTipText("HTTPS目标通过ALPN协商HTTP/2，同一主机的请求在一个连接上多路复用");
+        maxStreamsSpinner = new JSpinner(new SpinnerNumberModel(16, 1, 256, 1));
+        maxStreamsSpinner.setEnabled(false);
+        maxBodySpinner = new JSpinner(new SpinnerNumberModel(10240, 1, 1024 * 1024, 1024));
+        maxBodySpinner.setToolTipText("每个响应最多读取的内容（解压后），POC中的maxBodySize优先");
+        responseCacheSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 4096, 16));
+        responseCacheSpinner.setToolTipText("URL相同的GET请求在一次扫描内只发送一次，0为关闭；缓存占用堆外内存");
+        cacheIgnoredHeadersField = new JTextField("User-Agent,Accept", 12);
+        cacheIgnoredHeadersField.setToolTipText("只有这些请求头不同的GET请求共用缓存，其他请求头不同时分别请求（逗号分隔）");
+        metricsPortSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 65535, 1));
+        metricsPortSpinner.setEditor(new JSpinner.NumberEditor(metricsPortSpinner, "#"));
+        metricsPortSpinner.setToolTipText("扫描期间在127.0.0.1的该端口提供Prometheus格式的指标（/metrics），0为关闭");
+        virtualThreadCheckBox = new JCheckBox("虚拟线程");
+        virtualThreadCheckBox.setEnabled(VirtualThreads.isAvailable());
+        virtualThreadCheckBox.setToolTipText(VirtualThreads.isAvailable()
+                ? "每个任务使用一个虚拟线程，线程数只作为并发上限"
+                : "需要JDK 21或更高版本");
     }
     
     private void setupLayout() {
@@ -83,8 +140,16 @@ public class ScannerPanel extends JPanel {
         gbc.gridx = 1; gbc.gridwidth = 2;
         inputPanel.add(targetField, gbc);
 
-        // POC目录
+        // 目标文件
         gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 1;
+        inputPanel.add(new JLabel("目标文件:"), gbc);
+        gbc.gridx = 1;
+        inputPanel.add(targetFileField, gbc);
+        gbc.gridx = 2;
+        inputPanel.add(targetFileBrowseButton, gbc);
+
+        // POC目录
+        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 1;
         inputPanel.add(new JLabel("POC目录:"), gbc);
         gbc.gridx = 1;
         inputPanel.add(pocDirectoryField, gbc);
@@ -92,7 +157,7 @@ public class ScannerPanel extends JPanel {
         inputPanel.add(browseButton, gbc);
 
         // 代理设置
-        gbc.gridx = 0; gbc.gridy = 2;
+        gbc.gridx = 0; gbc.gridy = 3;
         inputPanel.add(new JLabel("代理设置:"), gbc);
         gbc.gridx = 1; gbc.gridwidth = 1;
         JPanel proxyPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
@@ -106,24 +171,56 @@ public class ScannerPanel extends JPanel {
         inputPanel.add(proxyPanel, gbc);
 
         // 线程控制
-        gbc.gridx = 0; gbc.gridy = 3;
+        gbc.gridx = 0; gbc.gridy = 4;
         inputPanel.add(new JLabel("线程控制:"), gbc);
         gbc.gridx = 1; gbc.gridwidth = 2;
         JPanel threadControlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
         threadControlPanel.add(threadCountLabel);
         threadControlPanel.add(threadCountSlider);
+        threadControlPanel.add(new JLabel("单主机并发:"));
+        threadControlPanel.add(perHostSpinner);
+        threadControlPanel.add(adaptiveCheckBox);
+        threadControlPanel.add(virtualThreadCheckBox);
+        threadControlPanel.add(asyncCheckBox);
+        threadControlPanel.add(new JLabel("最大并发请求:"));
+        threadControlPanel.add(maxInFlightSpinner);
         inputPanel.add(threadControlPanel, gbc);
 
+        // 连接设置
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 1;
+        inputPanel.add(new JLabel("连接设置:"), gbc);
+        gbc.gridx = 1; gbc.gridwidth = 2;
+        JPanel connectionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        connectionPanel.add(keepAliveCheckBox);
+        connectionPanel.add(new JLabel("最大空闲连接:"));
+        connectionPanel.add(maxIdleSpinner);
+        connectionPanel.add(new JLabel("保留时间(秒):"));
+        connectionPanel.add(keepAliveSecondsSpinner);
+        connectionPanel.add(http2CheckBox);
+        connectionPanel.add(new JLabel("每连接最大流:"));
+        connectionPanel.add(maxStreamsSpinner);
+        connectionPanel.add(new JLabel("响应体上限(KB):"));
+        connectionPanel.add(maxBodySpinner);
+        connectionPanel.add(new JLabel("响应缓存(MB):"));
+        connectionPanel.add(responseCacheSpinner);
+        connectionPanel.add(new JLabel("忽略请求头:"));
+        connectionPanel.add(cacheIgnoredHeadersField);
+        connectionPanel.add(new JLabel("指标端口:"));
+        connectionPanel.add(metricsPortSpinner);
+        inputPanel.add(connectionPanel, gbc);
+
         // 开始扫描按钮
-        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 3;
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 3;
         gbc.anchor = GridBagConstraints.CENTER;
         inputPanel.add(startButton, gbc);
 
         // 进度条
-        gbc.gridy = 5;
+        gbc.gridy = 7;
         progressBar.setStringPainted(true);
         progressBar.setVisible(false);
         inputPanel.add(progressBar, gbc);
+        gbc.gridy = 8;
+        inputPanel.add(metricsLabel, gbc);
 
         // 日志面板
         JPanel logPanel = new JPanel(new BorderLayout());
@@ -153,6 +250,18 @@ public class ScannerPanel extends JPanel {
             }
         });
 
+        targetFileBrowseButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                JFileChooser fileChooser = new JFileChooser();
+                fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+                int option = fileChooser.showOpenDialog(ScannerPanel.this);
+                if (option == JFileChooser.APPROVE_OPTION) {
+                    targetFileField.setText(fileChooser.getSelectedFile().getAbsolutePath());
+                }
+            }
+        });
+
         startButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -167,6 +276,19 @@ public class ScannerPanel extends JPanel {
             }
         });
         
+        asyncCheckBox.addActionListener(e -> maxInFlightSpinner.setEnabled(asyncCheckBox.isSelected()));
+        http2CheckBox.addActionListener(e -> {
+            maxStreamsSpinner.setEnabled(http2CheckBox.isSelected());
+            // HTTP/2多路复用依赖连接复用
+            if (http2CheckBox.isSelected() && !keepAliveCheckBox.isSelected()) {
+                keepAliveCheckBox.doClick();
+            }
+        });
+        keepAliveCheckBox.addActionListener(e -> {
+            maxIdleSpinner.setEnabled(keepAliveCheckBox.isSelected());
+            keepAliveSecondsSpinner.setEnabled(keepAliveCheckBox.isSelected());
+        });
+
         // 添加线程数滑块事件监听器
         threadCountSlider.addChangeListener(e -> {
             int threadCount = threadCountSlider.getValue();
@@ -180,14 +302,19 @@ public class ScannerPanel extends JPanel {
 
     private void startScanning() {
         String target = targetField.getText().trim();
+        String targetFile = targetFileField.getText().trim();
         String pocDirectory = pocDirectoryField.getText().trim();
         String proxyHost = proxyHostField.getText().trim();
         String proxyPortStr = proxyPortField.getText().trim();
         String proxyType = (String) proxyTypeComboBox.getSelectedItem(); // 获取选择的代理类型
         int threadCount = threadCountSlider.getValue(); // 获取线程数
 
-        if (target.isEmpty() || pocDirectory.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "请填写目标URL和POC目录", "输入错误", JOptionPane.ERROR_MESSAGE);
+        if ((target.isEmpty() && targetFile.isEmpty()) || pocDirectory.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请填写目标URL(或目标文件)和POC目录", "输入错误", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (!targetFile.isEmpty() && !new File(targetFile).isFile()) {
+            JOptionPane.showMessageDialog(this, "目标文件不存在: " + targetFile, "输入错误", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
@@ -213,6 +340,7 @@ public class ScannerPanel extends JPanel {
         // 创建扫描请求
         ScanRequest request = new ScanRequest();
         request.setTarget(target);
+        request.setTargetFile(targetFile);
         request.setSelectedPOCs(pocDirectory);
         request.setThreadCount(threadCount); // 设置线程数
         request.setTimeout(10000); // 默认超时时间
@@ -220,6 +348,26 @@ public class ScannerPanel extends JPanel {
         // 创建扫描引擎
         ScannerEngine engine = new ScannerEngine(pocDirectory);
         engine.setThreadCount(threadCount); // 设置引擎线程数
+        if (virtualThreadCheckBox.isSelected() && !engine.setVirtualThreads(true)) {
+            logArea.append("当前JVM不支持虚拟线程，使用普通线程池\n");
+        }
+        engine.setMaxConcurrencyPerHost((Integer) perHostSpinner.getValue());
+        engine.setAdaptiveConcurrency(adaptiveCheckBox.isSelected());
+        engine.setAsyncMode(asyncCheckBox.isSelected());
+        engine.setMaxInFlight((Integer) maxInFlightSpinner.getValue());
+        engine.setKeepAlive(keepAliveCheckBox.isSelected());
+        engine.setPreferHttp2(http2CheckBox.isSelected());
+        engine.setMaxStreamsPerConnection((Integer) maxStreamsSpinner.getValue());
+        engine.setConnectionPool((Integer) maxIdleSpinner.getValue(),
+                ((Integer) keepAliveSecondsSpinner.getValue()) * 1000L);
+        engine.setMaxBodySize(((Integer) maxBodySpinner.getValue()) * 1024L);
+        Set<String> cacheIgnoredHeaders = new LinkedHashSet<>();
+        for (String name : cacheIgnoredHeadersField.getText().split(",")) {
+            if (!name.trim().isEmpty()) {
+                cacheIgnoredHeaders.add(name.trim());
+            }
+        }
+        engine.setResponseCache(((Integer) responseCacheSpinner.getValue()) * 1024L * 1024L, cacheIgnoredHeaders);
         
         // 设置代理（如果启用了代理）
         if (enableProxyCheckBox.isSelected()) {
@@ -230,12 +378,27 @@ public class ScannerPanel extends JPanel {
         startButton.setEnabled(false);
         progressBar.setVisible(true);
         progressBar.setIndeterminate(true);
+        progressBar.setString("");
         logArea.append("开始扫描...\n");
+        int metricsPort = (Integer) metricsPortSpinner.getValue();
+        if (metricsPort > 0) {
+            try {
+                logArea.append("指标服务: " + engine.startMetricsServer(metricsPort).getUrl() + "\n");
+            } catch (IOException ex) {
+                logArea.append("指标服务启动失败: " + ex.getMessage() + "\n");
+            }
+        }
+        // 定时读取扫描指标快照，读取不加锁，不影响扫描线程
+        Timer metricsTimer = new Timer(1000, e -> metricsLabel.setText(formatMetrics(engine.getMetrics().snapshot())));
+        metricsTimer.start();
+        if (resultPanel != null) {
+            resultPanel.clearResults();
+        }
 
         SwingWorker<Void, String> worker = new SwingWorker<Void, String>() {
             @Override
             protected Void doInBackground() throws Exception {
-                engine.scan(request, new ScannerEngine.ScanListener() {
+                engine.scanStreaming(request, new ScannerEngine.ScanListener() {
                     @Override
                     public void onLog(String message) {
                         publish(message);
@@ -246,9 +409,22 @@ public class ScannerPanel extends JPanel {
                         // 这里可以根据需要更新进度条
                     }
 
+                    @Override
+                    public void onProgress(ScanProgress progress) {
+                        String text = "已完成 " + progress.getCompleted()
+                                + " | 进行中 " + progress.getInFlight()
+                                + " | 并发上限 " + progress.getConcurrencyLimit()
+                                + (progress.isAdaptive() ? "(自适应)" : "")
+                                + " | 超时 " + progress.getTimeouts();
+                        SwingUtilities.invokeLater(() -> progressBar.setString(text));
+                    }
+
                     @Override
                     public void onResult(com.pocscanner.core.model.ScanResult result) {
-                        // 结果会在扫描完成后统一处理
+                        // 结果完成即显示到结果面板
+                        if (resultPanel != null) {
+                            SwingUtilities.invokeLater(() -> resultPanel.addResult(result));
+                        }
                     }
                 });
                 return null;
@@ -264,19 +440,21 @@ public class ScannerPanel extends JPanel {
 
             @Override
             protected void done() {
+                metricsTimer.stop();
+                metricsLabel.setText(formatMetrics(engine.getMetrics().snapshot()));
                 logArea.append("扫描完成\n");
                 progressBar.setVisible(false);
                 startButton.setEnabled(true);
-                
-                // 显示扫描结果
-                if (resultPanel != null) {
-                    resultPanel.displayResults(engine.getScanResults());
-                }
-                
                 engine.shutdown();
             }
         };
 
         worker.execute();
     }
+
+    private static String formatMetrics(MetricsSnapshot metrics) {
+        return String.format("吞吐 %.1f 请求/秒 | 延迟 p50 %.0fms p99 %.0fms | 进行中 %d | 排队目标 %d | 超时 %d | 错误 %d",
+                metrics.getRequestsPerSecond(), metrics.getLatency().getP50(), metrics.getLatency().getP99(),
+                metrics.getInFlight(), metrics.getQueueDepth(), metrics.getTimeouts(), metrics.getErrors());
+    }
 }
\ No newline at end of file
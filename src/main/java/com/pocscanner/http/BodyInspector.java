@@ -0,0 +1,17 @@
+package com.pocscanner.http;
+
+import java.nio.charset.Charset;
+
+/**
+ * 响应体检查器：读取响应体的同时检查已读到的原始字节（解压后），结论确定后可提前停止读取。
+ * 传入的数组会继续被写入和扩容，实现类不能在inspect返回后继续持有它。
+ */
+public interface BodyInspector {
+    /**
+     * @param data 已读取的响应体，有效数据为[0, end)
+     * @param start 本次新读取数据的起始位置，之前的数据已检查过
+     * @param charset 响应体的字符编码
+     * @return true表示已能得出结论，剩余的响应体不再读取
+     */
+    boolean inspect(byte[] data, int start, int end, Charset charset);
+}
@@ -0,0 +1,141 @@
+package com.pocscanner.http;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 响应体字符编码检测。只检查响应体开头的SNIFF_LIMIT字节，直接按单字节视图匹配，不对响应体做完整解码；
+ * 正则表达式预编译，字符集名称的查找结果会被缓存。
+ */
+public final class CharsetSniffer {
+    // 只在响应体开头查找<meta>和XML声明
+    public static final int SNIFF_LIMIT = 4096;
+    private static final int MAX_CACHED_NAMES = 256; // 字符集名称由服务器返回，限制缓存大小
+
+    private static final Pattern CONTENT_TYPE_CHARSET =
+            Pattern.compile("charset\\s*=\\s*[\"']?([^;\"'\\s]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern META_TAG = Pattern.compile("<meta\\s[^>]*>", Pattern.CASE_INSENSITIVE);
+    // 同时覆盖<meta charset="...">和<meta http-equiv="Content-Type" content="...; charset=...">
+    private static final Pattern META_CHARSET =
+            Pattern.compile("charset\\s*=\\s*[\"']?([^\"'>;\\s/]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern XML_ENCODING =
+            Pattern.compile("<\\?xml[^>]*encoding=[\"']([^\"'>]+)[\"'][^>]*\\?>");
+
+    private static final ConcurrentHashMap<String, Optional<Charset>> CHARSETS = new ConcurrentHashMap<>();
+
+    private CharsetSniffer() {
+    }
+
+    /**
+     * 依次根据Content-Type头、HTML的meta标签、XML声明确定字符编码，都无效时根据BOM判断，默认UTF-8
+     *
+     * @param prefix 响应体（解压后）开头的数据
+     */
+    public static Charset detect(String contentType, byte[] prefix, int length) {
+        if (length == 0) {
+            return StandardCharsets.UTF_8;
+        }
+
+        Charset charset = StandardCharsets.UTF_8;
+        if (contentType != null) {
+            Matcher matcher = CONTENT_TYPE_CHARSET.matcher(contentType);
+            if (matcher.find()) {
+                charset = lookup(matcher.group(1));
+            }
+
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.contains("text/html") || type.contains("application/xhtml+xml")) {
+                Charset meta = sniffMeta(head(prefix, length));
+                if (meta != null) {
+                    charset = meta;
+                }
+            }
+            if (type.contains("text/xml") || type.contains("application/xml")) {
+                Charset xml = sniffXml(head(prefix, length));
+                if (xml != null) {
+                    charset = xml;
+                }
+            }
+        }
+
+        // 声明的编码无效时根据BOM判断
+        return charset != null ? charset : fromBom(prefix, length);
+    }
+
+    /**
+     * 按名称查找字符集，不支持时返回null。结果会被缓存。
+     */
+    public static Charset lookup(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Optional<Charset> cached = CHARSETS.get(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(forName(key));
+            if (CHARSETS.size() < MAX_CACHED_NAMES) {
+                CHARSETS.putIfAbsent(key, cached);
+            }
+        }
+        return cached.orElse(null);
+    }
+
+    // 把开头的字节按ISO-8859-1映射为字符串：每个字节对应一个字符，标签和属性名都是ASCII，无需真正解码
+    private static String head(byte[] prefix, int length) {
+        return new String(prefix, 0, Math.min(length, SNIFF_LIMIT), StandardCharsets.ISO_8859_1);
+    }
+
+    private static Charset sniffMeta(String head) {
+        Matcher tag = META_TAG.matcher(head);
+        Matcher attribute = META_CHARSET.matcher(head);
+        while (tag.find()) {
+            attribute.region(tag.start(), tag.end());
+            if (attribute.find()) {
+                Charset charset = lookup(attribute.group(1));
+                if (charset != null) {
+                    return charset;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Charset sniffXml(String head) {
+        Matcher matcher = XML_ENCODING.matcher(head);
+        return matcher.find() ? lookup(matcher.group(1)) : null;
+    }
+
+    private static Charset fromBom(byte[] bytes, int length) {
+        // 检查UTF-8 BOM
+        if (length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        // 检查UTF-16 BE BOM
+        if (length >= 2 && bytes[0] == (byte) 0xFE && bytes[1] == (byte) 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        // 检查UTF-16 LE BOM
+        if (length >= 2 && bytes[0] == (byte) 0xFF && bytes[1] == (byte) 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        // 默认使用UTF-8（最通用的编码）
+        return StandardCharsets.UTF_8;
+    }
+
+    private static Charset forName(String name) {
+        try {
+            return Charset.isSupported(name) ? Charset.forName(name) : null;
+        } catch (Exception e) {
+            // 名称不合法
+            return null;
+        }
+    }
+}
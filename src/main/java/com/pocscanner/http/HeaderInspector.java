@@ -0,0 +1,16 @@
+package com.pocscanner.http;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应头检查器：收到状态行和响应头后、读取响应体之前调用，
+ * 根据状态码、响应头、Content-Length等判断是否还需要响应体。
+ */
+public interface HeaderInspector {
+    /**
+     * @param headers 响应头，名称为小写
+     * @return false表示结论已确定，不读取响应体
+     */
+    boolean needsBody(int statusCode, Map<String, List<String>> headers);
+}
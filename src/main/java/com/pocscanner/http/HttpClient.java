@@ -1,38 +1,77 @@
 package com.pocscanner.http;
 
+import com.pocscanner.jfr.FlightEvents;
 import okhttp3.*;
 import javax.net.ssl.*;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
+/**
+ * HTTP客户端。所有实例共享同一个根OkHttpClient的调度器、默认连接池和TLS配置，
+ * 每个实例只是根据超时、代理等设置派生出的轻量变体，修改设置不会创建新的连接池或线程。
+ */
 public class HttpClient {
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 64;
+    private static final long DEFAULT_KEEP_ALIVE_MS = 30000;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    private static final int DISPATCHER_MAX_REQUESTS = 4096; // 共享调度器的进程级安全上限
+    private static final long DEFAULT_MAX_BODY_SIZE = 10L * 1024 * 1024; // 默认最多读取10MB响应体
+
+    // 根客户端：持有共享的调度器（线程池）、连接池和默认TLS配置
+    private static final OkHttpClient ROOT_CLIENT = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_MS, TimeUnit.MILLISECONDS))
+            .build();
+    // 不保留空闲连接的连接池，供需要新连接的请求使用
+    private static final ConnectionPool NO_REUSE_POOL = new ConnectionPool(0, 1, TimeUnit.MILLISECONDS);
+    // 异步请求读取响应体和执行完成回调（包括POC匹配）的线程池，所有实例共享，线程数固定
+    private static final ExecutorService BODY_EXECUTOR = newBodyExecutor();
+
+    static {
+        // 调度器由所有实例共享，只在这里设置一次较高的上限：异步并发由各实例的maxInFlight限制，
+        // 单主机并发由扫描引擎的HostScheduler控制，避免某个实例的设置影响其他实例
+        ROOT_CLIENT.dispatcher().setMaxRequests(DISPATCHER_MAX_REQUESTS);
+        ROOT_CLIENT.dispatcher().setMaxRequestsPerHost(DISPATCHER_MAX_REQUESTS);
+    }
+
     private int timeout = 10000; // 默认超时时间10秒
     private Proxy proxy = Proxy.NO_PROXY; // 默认不使用代理
     private Proxy.Type proxyType = Proxy.Type.HTTP; // 默认代理类型
     private boolean ignoreSSL = true; // 是否忽略SSL证书验证
-    private OkHttpClient client;
+    private volatile int maxInFlight = DEFAULT_MAX_IN_FLIGHT; // 本实例异步请求的并发上限
+    private final AtomicInteger inFlight = new AtomicInteger(); // 本实例正在进行的异步请求数
+    // 超过上限后等待发送的请求，返回false表示该请求在排队期间已被取消
+    private final ConcurrentLinkedQueue<BooleanSupplier> pendingCalls = new ConcurrentLinkedQueue<>();
+    private boolean keepAlive = false; // 是否复用连接（Keep-Alive），默认保持旧版每个请求新建连接的行为
+    private boolean preferHttp2 = false; // 是否通过ALPN协商HTTP/2（仅HTTPS）
+    private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS; // 连接池中最多保留的空闲连接数
+    private long keepAliveDuration = DEFAULT_KEEP_ALIVE_MS; // 空闲连接保留时间（毫秒）
+    private long maxBodySize = DEFAULT_MAX_BODY_SIZE; // 响应体读取上限（解压后的字节数）
+    private ConnectionPool connectionPool = ROOT_CLIENT.connectionPool();
+    private volatile ResponseCache responseCache; // 为null时不缓存响应
+    private final TimingStats timingStats = new TimingStats(); // 按主机汇总的请求阶段耗时
+    // 由当前设置派生的客户端，设置变化后置空，下次请求时重新派生
+    private volatile OkHttpClient client;
+    private volatile OkHttpClient freshClient; // 不复用连接的客户端，每个请求都建立新连接
 
     public HttpClient() {
-        buildClient();
     }
 
     public void setTimeout(int timeout) {
         this.timeout = timeout;
-        buildClient();
+        invalidateClient();
     }
 
     public void setProxy(String proxyHost, int proxyPort) {
@@ -61,12 +100,132 @@ public class HttpClient {
             this.proxy = Proxy.NO_PROXY;
             this.proxyType = Proxy.Type.HTTP;
         }
-        buildClient();
+        invalidateClient();
+    }
+
+    /**
+     * 设置是否复用连接。默认关闭：每个请求都带Connection: close并使用新连接（与旧版相同）；
+     * 开启后同一主机的请求通过连接池复用连接
+     */
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * HTTP/2优先模式：HTTPS请求通过ALPN协商HTTP/2，服务器支持时同一主机的请求在一个连接上多路复用，
+     * 不支持时自动回退到HTTP/1.1。关闭时（默认）只使用HTTP/1.1，保证POC请求头原样发送。
+     * 多路复用需要同时开启连接复用（setKeepAlive(true)）。
+     */
+    public void setPreferHttp2(boolean preferHttp2) {
+        this.preferHttp2 = preferHttp2;
+        invalidateClient();
+    }
+
+    public boolean isPreferHttp2() {
+        return preferHttp2;
+    }
+
+    /**
+     * 调整连接池。OkHttp的空闲连接上限是针对整个连接池而不是单个主机的，
+     * 多目标扫描时可按 主机数 × 每主机空闲连接数 估算。
+     * 参数与当前一致时继续使用共享连接池，不同时才为该实例创建独立的连接池。
+     */
+    public synchronized void setConnectionPool(int maxIdleConnections, long keepAliveMillis) {
+        maxIdleConnections = Math.max(0, maxIdleConnections);
+        keepAliveMillis = Math.max(1, keepAliveMillis);
+        if (maxIdleConnections == this.maxIdleConnections && keepAliveMillis == this.keepAliveDuration) {
+            return;
+        }
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveDuration = keepAliveMillis;
+
+        ConnectionPool oldPool = connectionPool;
+        if (maxIdleConnections == DEFAULT_MAX_IDLE_CONNECTIONS && keepAliveMillis == DEFAULT_KEEP_ALIVE_MS) {
+            this.connectionPool = ROOT_CLIENT.connectionPool();
+        } else {
+            this.connectionPool = new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS);
+        }
+        invalidateClient();
+        releasePool(oldPool);
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public long getKeepAliveDuration() {
+        return keepAliveDuration;
+    }
+
+    /**
+     * 设置响应体读取上限（解压后的字节数），超出部分不再读取，<=0表示不限制。
+     * 单个请求可通过RequestOptions单独设置。
+     */
+    public void setMaxBodySize(long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * 设置响应缓存，可缓存的GET请求命中时直接返回缓存的响应；为null时关闭缓存
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public TimingStats getTimingStats() {
+        return timingStats;
+    }
+
+    // 该实例所用连接池中的连接数（包括空闲连接）
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    // 共享调度器中正在执行和排队等待的请求数，对整个进程统计
+    public int getRunningCallCount() {
+        return ROOT_CLIENT.dispatcher().runningCallsCount();
+    }
+
+    public int getQueuedCallCount() {
+        return ROOT_CLIENT.dispatcher().queuedCallsCount();
     }
 
     public void setIgnoreSSL(boolean ignoreSSL) {
         this.ignoreSSL = ignoreSSL;
-        buildClient();
+        invalidateClient();
+    }
+
+    /**
+     * 释放该实例独占的资源（独立的连接池）。共享的调度器和连接池不受影响。
+     */
+    public synchronized void release() {
+        releasePool(connectionPool);
+        this.connectionPool = ROOT_CLIENT.connectionPool();
+        this.maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+        this.keepAliveDuration = DEFAULT_KEEP_ALIVE_MS;
+        invalidateClient();
+    }
+
+    private void releasePool(ConnectionPool pool) {
+        if (pool != ROOT_CLIENT.connectionPool()) {
+            pool.evictAll();
+        }
     }
     
     public String getProxyType() {
@@ -80,8 +239,17 @@ public class HttpClient {
         }
     }
 
-    private void buildClient() {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+    private synchronized void invalidateClient() {
+        this.client = null;
+        this.freshClient = null;
+    }
+
+    // 从根客户端派生，派生的客户端共享调度器和TLS配置，创建开销很小
+    private synchronized void buildClient() {
+        if (client != null) {
+            return;
+        }
+        OkHttpClient.Builder builder = ROOT_CLIENT.newBuilder()
                 .connectTimeout(timeout, TimeUnit.MILLISECONDS)
                 .readTimeout(timeout, TimeUnit.MILLISECONDS)
                 .writeTimeout(timeout, TimeUnit.MILLISECONDS);
@@ -96,12 +264,245 @@ public class HttpClient {
             configureIgnoreSSL(builder);
         }
 
-        this.client = builder.build();
+        // 协议：明文HTTP始终使用HTTP/1.1，HTTPS在HTTP/2优先模式下通过ALPN协商
+        builder.protocols(preferHttp2
+                ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : Collections.singletonList(Protocol.HTTP_1_1));
+
+        // 共享连接池，修改超时或代理时不丢弃已建立的连接
+        builder.connectionPool(connectionPool);
+
+        // 记录每个请求的阶段耗时，耗时对象通过请求的tag传入
+        builder.eventListenerFactory(call -> {
+            RequestTimings timings = call.request().tag(RequestTimings.class);
+            return timings != null ? new TimingEventListener(timings, timingStats) : EventListener.NONE;
+        });
+
+        OkHttpClient built = builder.build();
+        // 不保留空闲连接的连接池，保证每个请求都使用新连接
+        this.freshClient = built.newBuilder()
+                .connectionPool(NO_REUSE_POOL)
+                .build();
+        this.client = built;
+    }
+
+    private OkHttpClient clientFor(boolean freshConnection) {
+        boolean fresh = freshConnection || !keepAlive;
+        OkHttpClient current = fresh ? freshClient : client;
+        if (current == null) {
+            synchronized (this) {
+                buildClient();
+                current = fresh ? freshClient : client;
+            }
+        }
+        return current;
     }
 
     public HttpResponse sendRequest(String method, String url, Map<String, String> headers, String body) throws IOException {
+        return sendRequest(method, url, headers, body, null);
+    }
+
+    /**
+     * @param options 连接复用、响应体上限等单个请求的设置，为null时使用默认设置
+     */
+    public HttpResponse sendRequest(String method, String url, Map<String, String> headers, String body,
+                                    RequestOptions options) throws IOException {
+        Object event = FlightEvents.beginHttpRequest();
+        RequestOptions requestOptions = options != null ? options : new RequestOptions();
+        ResponseCache cache = responseCache;
+        String cacheKey = cache != null ? cache.keyFor(method, url, headers, body, requestOptions) : null;
+        if (cacheKey != null) {
+            HttpResponse cached = cache.get(cacheKey, bodyLimit(requestOptions));
+            if (cached != null) {
+                endRequestEvent(event, method, url, cached);
+                return cached;
+            }
+            requestOptions = withoutInspector(requestOptions);
+        }
         long startTime = System.currentTimeMillis();
+        HttpResponse httpResponse = null;
+        try {
+            Request request = buildRequest(method, url, headers, body, requestOptions.isFreshConnection());
+
+            // 发送请求
+            try (Response response = clientFor(requestOptions.isFreshConnection()).newCall(request).execute()) {
+                httpResponse = toHttpResponse(response, url, startTime, requestOptions);
+            }
+            if (cacheKey != null) {
+                cache.put(cacheKey, httpResponse, bodyLimit(requestOptions));
+            }
+            return httpResponse;
+        } finally {
+            endRequestEvent(event, method, url, httpResponse);
+        }
+    }
+
+    /**
+     * 异步发送请求：调用线程不等待响应。本实例同时进行的请求数不超过setMaxInFlight设置的上限，
+     * 超出的请求在本实例内排队，有请求完成后再交给OkHttp调度器。
+     * OkHttp的网络读写是阻塞的，建立连接、发送请求和等待响应头期间每个请求仍占用一个调度器线程（不超过maxInFlight个）；
+     * 收到响应头后调度器线程立即归还，读取、解压响应体和完成回调（包括POC匹配）交给固定大小的共享线程池执行。
+     * 因此与同步模式相比，扫描线程不再等待响应，响应体处理和匹配的CPU开销只占用少量固定线程，
+     * 但等待服务器响应的请求仍然各占一个线程，并不能用少量线程支撑数千个进行中的请求。
+     */
+    public CompletableFuture<HttpResponse> sendRequestAsync(String method, String url, Map<String, String> headers, String body) {
+        return sendRequestAsync(method, url, headers, body, null);
+    }
+
+    public CompletableFuture<HttpResponse> sendRequestAsync(String method, String url, Map<String, String> headers, String body,
+                                                            RequestOptions options) {
+        Object event = FlightEvents.beginHttpRequest();
+        RequestOptions requestOptions = options != null ? options : new RequestOptions();
+        ResponseCache cache = responseCache;
+        String cacheKey = cache != null ? cache.keyFor(method, url, headers, body, requestOptions) : null;
+        if (cacheKey != null) {
+            HttpResponse cached = cache.get(cacheKey, bodyLimit(requestOptions));
+            if (cached != null) {
+                endRequestEvent(event, method, url, cached);
+                return CompletableFuture.completedFuture(cached);
+            }
+            requestOptions = withoutInspector(requestOptions);
+        }
+        RequestOptions callOptions = requestOptions;
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        Request request;
+        try {
+            request = buildRequest(method, url, headers, body, requestOptions.isFreshConnection());
+        } catch (IOException | RuntimeException e) {
+            endRequestEvent(event, method, url, null);
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        OkHttpClient callClient = clientFor(requestOptions.isFreshConnection());
+        pendingCalls.add(() -> {
+            if (future.isDone()) {
+                // 排队期间已被调用方取消
+                return false;
+            }
+            long startTime = System.currentTimeMillis();
+            Call call = callClient.newCall(request);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    releaseSlot();
+                    endRequestEvent(event, method, url, null);
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    // 调度器线程只负责等待响应头，响应体读取在固定线程池中进行，名额在读完后才归还
+                    BODY_EXECUTOR.execute(() -> {
+                        HttpResponse httpResponse;
+                        try (Response r = response) {
+                            httpResponse = toHttpResponse(r, url, startTime, callOptions);
+                        } catch (Exception e) {
+                            releaseSlot();
+                            endRequestEvent(event, method, url, null);
+                            future.completeExceptionally(e);
+                            return;
+                        }
+                        releaseSlot();
+                        // 响应关闭后响应体阶段的耗时和字节数才完整
+                        if (cacheKey != null) {
+                            cache.put(cacheKey, httpResponse, bodyLimit(callOptions));
+                        }
+                        endRequestEvent(event, method, url, httpResponse);
+                        future.complete(httpResponse);
+                    });
+                }
+            });
+            // 调用方取消时同时取消底层请求
+            future.whenComplete((response, e) -> {
+                if (future.isCancelled()) {
+                    call.cancel();
+                }
+            });
+            return true;
+        });
+        startPendingCalls();
+        return future;
+    }
+
+    // 在本实例的并发上限内按顺序发出排队的请求
+    private void startPendingCalls() {
+        while (!pendingCalls.isEmpty() && tryAcquireSlot()) {
+            BooleanSupplier start = pendingCalls.poll();
+            if (start == null || !start.getAsBoolean()) {
+                // 队列已被其他线程取空，或该请求在排队期间已被取消：直接归还名额，不递归调用releaseSlot
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private static ExecutorService newBodyExecutor() {
+        // 响应体读取仍会等待网络数据，线程数取CPU核数的两倍
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "poc-response-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private boolean tryAcquireSlot() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
 
+    private void releaseSlot() {
+        inFlight.decrementAndGet();
+        startPendingCalls();
+    }
+
+    // 记录HTTP请求的JFR事件，失败的请求response为null；未开启录制时event为null，不做任何计算
+    private static void endRequestEvent(Object event, String method, String url, HttpResponse response) {
+        if (event == null) {
+            return;
+        }
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        FlightEvents.endHttpRequest(event, method, httpUrl != null ? httpUrl.host() : url,
+                response != null ? response.getStatusCode() : 0, response != null ? response.getRawBodyLength() : 0,
+                response != null && response.isFromCache());
+    }
+
+    // 本次请求实际使用的响应体上限，不限制时为Long.MAX_VALUE
+    private long bodyLimit(RequestOptions options) {
+        long limit = options.getMaxBodySize() > 0 ? options.getMaxBodySize() : maxBodySize;
+        return limit > 0 ? limit : Long.MAX_VALUE;
+    }
+
+    // 可缓存的响应需要完整读取，以便其他POC使用，因此不提前结束读取
+    private static RequestOptions withoutInspector(RequestOptions options) {
+        RequestOptions copy = new RequestOptions();
+        copy.setFreshConnection(options.isFreshConnection());
+        copy.setMaxBodySize(options.getMaxBodySize());
+        copy.setSkipBody(options.isSkipBody());
+        copy.setHeaderInspector(options.getHeaderInspector());
+        return copy;
+    }
+
+    // 设置本实例同时进行的最大异步请求数，只影响本实例，不修改共享的调度器
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        startPendingCalls();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    private Request buildRequest(String method, String url, Map<String, String> headers, String body,
+                                 boolean freshConnection) throws IOException {
         // 构建请求
         Request.Builder requestBuilder = new Request.Builder().url(url);
 
@@ -136,6 +537,9 @@ public class HttpClient {
             case "DELETE":
                 requestBuilder.delete();
                 break;
+            case "HEAD":
+                requestBuilder.head();
+                break;
             case "GET":
             default:
                 requestBuilder.get();
@@ -172,7 +576,8 @@ public class HttpClient {
         if (headers == null || !headers.containsKey("Accept-Encoding")) {
             headersBuilder.add("Accept-Encoding", "gzip, deflate");
         }
-        if (headers == null || !headers.containsKey("Connection")) {
+        // 默认不复用连接，每个请求都要求服务器在响应后关闭连接；开启Keep-Alive后只有要求新连接的请求才这样做
+        if ((freshConnection || !keepAlive) && (headers == null || !headers.containsKey("Connection"))) {
             headersBuilder.add("Connection", "close");
         }
 
@@ -184,263 +589,117 @@ public class HttpClient {
         }
 
         requestBuilder.headers(headersBuilder.build());
-
-        // 发送请求
-        Request request = requestBuilder.build();
-        try (Response response = client.newCall(request).execute()) {
-            long responseTime = System.currentTimeMillis() - startTime;
-            
-            // 构建响应
-            Map<String, List<String>> responseHeaders = response.headers().toMultimap();
-            String responseBody = response.body() != null ? getResponseBodyWithCorrectEncoding(response) : "";
-            
-            // 创建HttpResponse对象
-            HttpResponse httpResponse = new HttpResponse(response.code(), responseBody, responseHeaders, responseTime);
-            
-            // 如果是HTTPS请求，收集SSL/TLS信息
-            if (url.startsWith("https://")) {
-                try {
-                    // 获取连接信息（OkHttp 4.x的新方式）
-                    okhttp3.Handshake handshake = response.handshake();
-
-                    if (handshake != null) {
-                        // 设置SSL/TLS协议版本
-                        httpResponse.setSslProtocol(handshake.tlsVersion().javaName());
-                        // 设置加密套件
-                        httpResponse.setCipherSuite(handshake.cipherSuite().javaName());
-                        // 设置SSL验证状态
-                        httpResponse.setSslVerified(!ignoreSSL);
-                        
-                        // 获取证书信息（第一个证书）
-                        if (!handshake.peerCertificates().isEmpty()) {
-                            java.security.cert.X509Certificate cert = (java.security.cert.X509Certificate) handshake.peerCertificates().get(0);
-                            
-                            // 设置证书主题
-                            httpResponse.setSslSubject(cert.getSubjectDN().getName());
-                            // 设置证书颁发者
-                            httpResponse.setSslIssuer(cert.getIssuerDN().getName());
-                            // 设置证书有效期
-                            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                            httpResponse.setSslValidFrom(sdf.format(cert.getNotBefore()));
-                            httpResponse.setSslValidTo(sdf.format(cert.getNotAfter()));
-                        }
-                    }
-                } catch (Exception e) {
-                    System.err.println("收集SSL信息失败: " + e.getMessage());
-                }
-            }
-            
-            return httpResponse;
-        }
+        requestBuilder.tag(RequestTimings.class, new RequestTimings());
+        return requestBuilder.build();
     }
-    
-    // 根据Content-Type或HTML meta标签获取正确的字符编码
-    private String getResponseBodyWithCorrectEncoding(Response response) throws IOException {
-        // 获取原始字节
-        byte[] responseBodyBytes = getUncompressedResponseBody(response);
-        if (responseBodyBytes == null || responseBodyBytes.length == 0) {
-            return "";
-        }
-        
-        // 尝试从Content-Type头获取字符编码
-        String contentType = response.header("Content-Type");
-        String charset = "UTF-8"; // 默认使用UTF-8
-        
-        if (contentType != null) {
-            // 从Content-Type中提取字符编码
-            Pattern pattern = Pattern.compile("charset=([^;]+)");
-            Matcher matcher = pattern.matcher(contentType);
-            if (matcher.find()) {
-                charset = matcher.group(1).trim().toUpperCase();
-            }
-        }
+
+    private HttpResponse toHttpResponse(Response response, String url, long startTime, RequestOptions options) throws IOException {
+        long responseTime = System.currentTimeMillis() - startTime;
         
-        // 如果是HTML内容，尝试从HTML meta标签获取字符编码
-        if (contentType != null && (contentType.contains("text/html") || contentType.contains("application/xhtml+xml"))) {
-            try {
-                // 先用UTF-8尝试解析HTML
-                String tempHtml = new String(responseBodyBytes, StandardCharsets.UTF_8);
-                
-                // 从HTML meta标签中提取字符编码（多种格式）
-                Pattern[] metaPatterns = {
-                    Pattern.compile("<meta[^>]*charset=[\"']([^\"'>]+)[\"'][^>]*>", Pattern.CASE_INSENSITIVE),
-                    Pattern.compile("<meta[^>]*content=[\"'][^\"']*charset=([^\"'>]+)[\"'][^>]*>", Pattern.CASE_INSENSITIVE),
-                    Pattern.compile("<meta\\s+http-equiv=[\"']Content-Type[\"'][^>]*content=[\"'][^\"']*charset=([^\"'>]+)[\"'][^>]*>", Pattern.CASE_INSENSITIVE)
-                };
-                
-                for (Pattern metaPattern : metaPatterns) {
-                    Matcher metaMatcher = metaPattern.matcher(tempHtml);
-                    if (metaMatcher.find()) {
-                        String detectedCharset = metaMatcher.group(1).trim().toUpperCase();
-                        if (isValidCharset(detectedCharset)) {
-                            charset = detectedCharset;
-                            break;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // 解析失败，使用默认编码
-                System.err.println("解析HTML编码失败: " + e.getMessage());
-            }
+        // 构建响应
+        Map<String, List<String>> responseHeaders = response.headers().toMultimap();
+        HttpResponse httpResponse;
+        if (options.isSkipBody() || (options.getHeaderInspector() != null
+                && !options.getHeaderInspector().needsBody(response.code(), responseHeaders))) {
+            // 只需要状态码和响应头，或根据响应头已能得出结论，关闭响应时OkHttp会丢弃未读的响应体
+            httpResponse = new HttpResponse(response.code(), "", responseHeaders, responseTime);
+            httpResponse.setBodySkipped(true);
+        } else if (response.body() != null) {
+            // 流式读取响应体，超过上限或检查器得出结论后停止读取；响应体在需要显示时才解码
+            long limit = options.getMaxBodySize() > 0 ? options.getMaxBodySize() : maxBodySize;
+            String contentType = response.header("Content-Type");
+            ResponseBodyReader reader = new ResponseBodyReader(limit, options.getBodyInspector(),
+                    (prefix, length) -> CharsetSniffer.detect(contentType, prefix, length));
+            byte[] body = reader.read(response.body(), response.header("Content-Encoding"));
+            httpResponse = new HttpResponse(response.code(), body, reader.getLength(), reader.getCharset(),
+                    responseHeaders, responseTime);
+            httpResponse.setBodyTruncated(reader.isTruncated());
+            httpResponse.setEarlyTerminated(reader.isEarlyTerminated());
+        } else {
+            httpResponse = new HttpResponse(response.code(), "", responseHeaders, responseTime);
         }
+        httpResponse.setProtocol(response.protocol().toString());
+        // 耗时对象在响应关闭时补全响应体阶段
+        httpResponse.setTimings(response.request().tag(RequestTimings.class));
         
-        // 对于XML内容，尝试从XML声明中获取编码
-        if (contentType != null && (contentType.contains("text/xml") || contentType.contains("application/xml"))) {
+        // 如果是HTTPS请求，收集SSL/TLS信息
+        if (url.startsWith("https://")) {
             try {
-                // 尝试用UTF-8解析XML声明
-                String tempXml = new String(responseBodyBytes, StandardCharsets.UTF_8);
-                Pattern xmlPattern = Pattern.compile("<\\?xml[^>]*encoding=[\"']([^\"'>]+)[\"'][^>]*\\?>");
-                Matcher xmlMatcher = xmlPattern.matcher(tempXml);
-                if (xmlMatcher.find()) {
-                    String detectedCharset = xmlMatcher.group(1).trim().toUpperCase();
-                    if (isValidCharset(detectedCharset)) {
-                        charset = detectedCharset;
+                // 获取连接信息（OkHttp 4.x的新方式）
+                okhttp3.Handshake handshake = response.handshake();
+
+                if (handshake != null) {
+                    // 设置SSL/TLS协议版本
+                    httpResponse.setSslProtocol(handshake.tlsVersion().javaName());
+                    // 设置加密套件
+                    httpResponse.setCipherSuite(handshake.cipherSuite().javaName());
+                    // 设置SSL验证状态
+                    httpResponse.setSslVerified(!ignoreSSL);
+                    
+                    // 获取证书信息（第一个证书）
+                    if (!handshake.peerCertificates().isEmpty()) {
+                        java.security.cert.X509Certificate cert = (java.security.cert.X509Certificate) handshake.peerCertificates().get(0);
+                        
+                        // 设置证书主题
+                        httpResponse.setSslSubject(cert.getSubjectDN().getName());
+                        // 设置证书颁发者
+                        httpResponse.setSslIssuer(cert.getIssuerDN().getName());
+                        // 设置证书有效期
+                        java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                        httpResponse.setSslValidFrom(sdf.format(cert.getNotBefore()));
+                        httpResponse.setSslValidTo(sdf.format(cert.getNotAfter()));
                     }
                 }
             } catch (Exception e) {
-                // 解析失败，使用默认编码
-                System.err.println("解析XML编码失败: " + e.getMessage());
+                System.err.println("收集SSL信息失败: " + e.getMessage());
             }
         }
         
-        // 如果没有检测到编码或检测到的编码无效，尝试自动检测编码
-        if (!isValidCharset(charset)) {
-            charset = detectCharset(responseBodyBytes);
-        }
-        
-        // 使用检测到的字符编码解码响应体
-        try {
-            return new String(responseBodyBytes, charset);
-        } catch (Exception e) {
-            System.err.println("使用编码 " + charset + " 解码失败: " + e.getMessage());
-            
-            // 如果指定的字符编码无效，尝试常见编码（优先UTF-8）
-            String[] fallbackCharsets = {"UTF-8", "GBK", "GB2312", "ISO-8859-1", "WINDOWS-1252"};
-            for (String fallbackCharset : fallbackCharsets) {
-                try {
-                    return new String(responseBodyBytes, fallbackCharset);
-                } catch (Exception ex) {
-                    // 继续尝试下一个编码
-                }
-            }
-            
-            // 如果所有编码都失败，使用系统默认编码
-            return new String(responseBodyBytes);
-        }
-    }
-    
-    // 获取解压缩后的响应体字节数组
-    private byte[] getUncompressedResponseBody(Response response) throws IOException {
-        byte[] compressedBytes = response.body().bytes();
-        if (compressedBytes == null || compressedBytes.length == 0) {
-            return compressedBytes;
-        }
-        
-        // 检查Content-Encoding头
-        String contentEncoding = response.header("Content-Encoding");
-        if (contentEncoding == null) {
-            // 没有压缩，直接返回原始字节
-            return compressedBytes;
-        }
-        
-        // 根据压缩类型进行解压缩
-        try (InputStream inputStream = new ByteArrayInputStream(compressedBytes);
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            InputStream decompressedStream;
-            
-            switch (contentEncoding.toLowerCase()) {
-                case "gzip":
-                    decompressedStream = new GZIPInputStream(inputStream);
-                    break;
-                case "deflate":
-                    decompressedStream = new InflaterInputStream(inputStream);
-                    break;
-                default:
-                    // 不支持的压缩类型，直接返回原始字节
-                    return compressedBytes;
-            }
-            
-            // 读取解压缩后的数据
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = decompressedStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-            
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            System.err.println("解压缩响应体失败: " + e.getMessage());
-            // 解压缩失败，返回原始字节
-            return compressedBytes;
-        }
-    }
-    
-    // 验证字符编码是否有效
-    private boolean isValidCharset(String charsetName) {
-        if (charsetName == null || charsetName.trim().isEmpty()) {
-            return false;
-        }
-        
-        try {
-            return Charset.isSupported(charsetName.trim());
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
-    // 简单的字符编码检测
-    private String detectCharset(byte[] bytes) {
-        // 检查UTF-8 BOM
-        if (bytes.length >= 3 && bytes[0] == (byte)0xEF && bytes[1] == (byte)0xBB && bytes[2] == (byte)0xBF) {
-            return "UTF-8";
-        }
-        
-        // 检查UTF-16 BE BOM
-        if (bytes.length >= 2 && bytes[0] == (byte)0xFE && bytes[1] == (byte)0xFF) {
-            return "UTF-16BE";
-        }
-        
-        // 检查UTF-16 LE BOM
-        if (bytes.length >= 2 && bytes[0] == (byte)0xFF && bytes[1] == (byte)0xFE) {
-            return "UTF-16LE";
-        }
-        
-        // 默认使用UTF-8（最通用的编码）
-        return "UTF-8";
+        return httpResponse;
     }
     
     /**
      * 配置忽略SSL证书验证
      */
     private void configureIgnoreSSL(OkHttpClient.Builder builder) {
-        try {
-            // 创建信任所有证书的TrustManager
-            X509TrustManager trustManager = new X509TrustManager() {
-                @Override
-                public void checkClientTrusted(X509Certificate[] chain, String authType) {
-                }
+        if (TrustAllTls.SOCKET_FACTORY == null) {
+            return;
+        }
+        builder.sslSocketFactory(TrustAllTls.SOCKET_FACTORY, TrustAllTls.TRUST_MANAGER)
+               .hostnameVerifier((hostname, session) -> true);
+    }
 
-                @Override
-                public void checkServerTrusted(X509Certificate[] chain, String authType) {
-                }
+    // 信任所有证书的TLS配置，只创建一次，所有派生客户端共用（共用同一个工厂才能复用HTTPS连接）
+    private static final class TrustAllTls {
+        // 创建信任所有证书的TrustManager
+        private static final X509TrustManager TRUST_MANAGER = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
 
-                @Override
-                public X509Certificate[] getAcceptedIssuers() {
-                    return new X509Certificate[0];
-                }
-            };
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
 
-            // 创建SSL上下文
-            SSLContext sslContext = SSLContext.getInstance("SSL");
-            sslContext.init(null, new TrustManager[]{trustManager}, new java.security.SecureRandom());
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        private static final SSLSocketFactory SOCKET_FACTORY = createSocketFactory();
 
-            // 创建SSL套接字工厂
-            SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
+        private static SSLSocketFactory createSocketFactory() {
+            try {
+                // 创建SSL上下文
+                SSLContext sslContext = SSLContext.getInstance("SSL");
+                sslContext.init(null, new TrustManager[]{TRUST_MANAGER}, new java.security.SecureRandom());
 
-            builder.sslSocketFactory(sslSocketFactory, trustManager)
-                   .hostnameVerifier((hostname, session) -> true);
-        } catch (Exception e) {
-            System.err.println("配置SSL忽略失败: " + e.getMessage());
+                // 创建SSL套接字工厂
+                return sslContext.getSocketFactory();
+            } catch (Exception e) {
+                System.err.println("配置SSL忽略失败: " + e.getMessage());
+                return null;
+            }
         }
     }
 }
\ No newline at end of file
@@ -1,13 +1,24 @@
 package com.pocscanner.http;
 
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 
 public class HttpResponse {
     private int statusCode;
     private String body;
+    // 未解码的响应体（解压后），第一次调用getBody时才按charset解码
+    private byte[] rawBody;
+    private int rawBodyLength;
+    private Charset charset;
     private Map<String, List<String>> headers;
     private long responseTime;
+    private String protocol; // 实际使用的协议，如http/1.1、h2
+    private boolean bodyTruncated; // 响应体超过读取上限，只保留了前面的部分
+    private boolean earlyTerminated; // 匹配结论已确定，响应体未读完
+    private boolean fromCache; // 响应来自本次扫描的响应缓存，没有发送请求
+    private boolean bodySkipped; // 未读取响应体（只需要状态码和响应头）
+    private RequestTimings timings; // 各阶段耗时，来自缓存的响应为null
     // SSL/TLS相关信息
     private String sslProtocol;
     private String cipherSuite;
@@ -24,6 +35,16 @@ public class HttpResponse {
         this.responseTime = responseTime;
     }
 
+    public HttpResponse(int statusCode, byte[] rawBody, int rawBodyLength, Charset charset,
+                        Map<String, List<String>> headers, long responseTime) {
+        this.statusCode = statusCode;
+        this.rawBody = rawBody;
+        this.rawBodyLength = rawBodyLength;
+        this.charset = charset;
+        this.headers = headers;
+        this.responseTime = responseTime;
+    }
+
     // Getters and Setters
     public int getStatusCode() {
         return statusCode;
@@ -34,11 +55,33 @@ public class HttpResponse {
     }
 
     public String getBody() {
+        if (body == null && rawBody != null) {
+            body = new String(rawBody, 0, rawBodyLength, charset);
+        }
         return body;
     }
 
+    // 响应体是否已解码为字符串（没有原始字节时视为已解码）
+    public boolean isBodyDecoded() {
+        return body != null || rawBody == null;
+    }
+
     public void setBody(String body) {
         this.body = body;
+        this.rawBody = null;
+    }
+
+    // 未解码的响应体，有效数据为[0, getRawBodyLength())；通过setBody设置的响应体没有原始字节，返回null
+    public byte[] getRawBody() {
+        return rawBody;
+    }
+
+    public int getRawBodyLength() {
+        return rawBodyLength;
+    }
+
+    public Charset getCharset() {
+        return charset;
     }
 
     public Map<String, List<String>> getHeaders() {
@@ -57,6 +100,54 @@ public class HttpResponse {
         this.responseTime = responseTime;
     }
 
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public void setProtocol(String protocol) {
+        this.protocol = protocol;
+    }
+
+    public boolean isBodyTruncated() {
+        return bodyTruncated;
+    }
+
+    public void setBodyTruncated(boolean bodyTruncated) {
+        this.bodyTruncated = bodyTruncated;
+    }
+
+    public boolean isEarlyTerminated() {
+        return earlyTerminated;
+    }
+
+    public void setEarlyTerminated(boolean earlyTerminated) {
+        this.earlyTerminated = earlyTerminated;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public void setFromCache(boolean fromCache) {
+        this.fromCache = fromCache;
+    }
+
+    public boolean isBodySkipped() {
+        return bodySkipped;
+    }
+
+    public void setBodySkipped(boolean bodySkipped) {
+        this.bodySkipped = bodySkipped;
+    }
+
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    public void setTimings(RequestTimings timings) {
+        this.timings = timings;
+    }
+
     // SSL/TLS相关信息的Getter和Setter
     public String getSslProtocol() {
         return sslProtocol;
@@ -117,6 +208,6 @@ public class HttpResponse {
     @Override
     public String toString() {
         return String.format("Status: %d, Body Length: %d, Response Time: %d ms, SSL: %s", 
-                statusCode, body.length(), responseTime, sslProtocol != null ? sslProtocol : "No SSL");
+                statusCode, getBody().length(), responseTime, sslProtocol != null ? sslProtocol : "No SSL");
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.pocscanner.http;
+
+/**
+ * 单个请求的可选设置
+ */
+public class RequestOptions {
+    private boolean freshConnection; // 不复用连接池中的连接，并发送Connection: close
+    private long maxBodySize; // 响应体读取上限（字节），<=0时使用HttpClient的全局设置
+    private BodyInspector bodyInspector; // 读取响应体时的增量检查器
+    private boolean skipBody; // 只需要状态码和响应头，收到响应头后直接关闭响应，不读取响应体
+    private HeaderInspector headerInspector; // 收到响应头后判断是否还需要读取响应体
+
+    // Getters and Setters
+    public boolean isFreshConnection() { return freshConnection; }
+    public void setFreshConnection(boolean freshConnection) { this.freshConnection = freshConnection; }
+
+    public long getMaxBodySize() { return maxBodySize; }
+    public void setMaxBodySize(long maxBodySize) { this.maxBodySize = maxBodySize; }
+
+    public BodyInspector getBodyInspector() { return bodyInspector; }
+    public void setBodyInspector(BodyInspector bodyInspector) { this.bodyInspector = bodyInspector; }
+
+    public boolean isSkipBody() { return skipBody; }
+    public void setSkipBody(boolean skipBody) { this.skipBody = skipBody; }
+
+    public HeaderInspector getHeaderInspector() { return headerInspector; }
+    public void setHeaderInspector(HeaderInspector headerInspector) { this.headerInspector = headerInspector; }
+}
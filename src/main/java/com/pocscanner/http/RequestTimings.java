@@ -0,0 +1,51 @@
+package com.pocscanner.http;
+
+/**
+ * 单个请求各阶段的耗时（纳秒）和收发字节数，由OkHttp事件监听器在请求过程中填写。
+ * 复用连接时DNS、连接和TLS耗时为0；重定向和重试的各次耗时累加。
+ */
+public class RequestTimings {
+    private volatile long dnsNanos;
+    private volatile long connectNanos; // TCP连接，不含TLS握手
+    private volatile long tlsNanos;
+    private volatile long ttfbNanos; // 开始发送请求到收到响应头的首字节
+    private volatile long bodyNanos; // 读取响应体（包括提前结束读取和丢弃）
+    private volatile long totalNanos;
+    private volatile long bytesSent; // 请求头和请求体（不含请求行）
+    private volatile long bytesReceived; // 响应头和网络上传输的响应体（压缩时为压缩后的大小，不含状态行）
+    private volatile boolean newConnection;
+
+    public long getDnsNanos() { return dnsNanos; }
+    void addDnsNanos(long nanos) { dnsNanos += nanos; }
+
+    public long getConnectNanos() { return connectNanos; }
+    void addConnectNanos(long nanos) { connectNanos += nanos; }
+
+    public long getTlsNanos() { return tlsNanos; }
+    void addTlsNanos(long nanos) { tlsNanos += nanos; }
+
+    public long getTtfbNanos() { return ttfbNanos; }
+    void addTtfbNanos(long nanos) { ttfbNanos += nanos; }
+
+    public long getBodyNanos() { return bodyNanos; }
+    void addBodyNanos(long nanos) { bodyNanos += nanos; }
+
+    public long getTotalNanos() { return totalNanos; }
+    void setTotalNanos(long totalNanos) { this.totalNanos = totalNanos; }
+
+    public long getBytesSent() { return bytesSent; }
+    void addBytesSent(long bytes) { bytesSent += bytes; }
+
+    public long getBytesReceived() { return bytesReceived; }
+    void addBytesReceived(long bytes) { bytesReceived += bytes; }
+
+    public boolean isNewConnection() { return newConnection; }
+    void setNewConnection(boolean newConnection) { this.newConnection = newConnection; }
+
+    @Override
+    public String toString() {
+        return String.format("DNS %.1fms, 连接 %.1fms, TLS %.1fms, 首字节 %.1fms, 响应体 %.1fms, 总计 %.1fms, 发送 %d字节, 接收 %d字节%s",
+                dnsNanos / 1e6, connectNanos / 1e6, tlsNanos / 1e6, ttfbNanos / 1e6, bodyNanos / 1e6, totalNanos / 1e6,
+                bytesSent, bytesReceived, newConnection ? "" : "（复用连接）");
+    }
+}
@@ -0,0 +1,219 @@
+package com.pocscanner.http;
+
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 单遍读取响应体：网络流 → 解压（gzip/deflate）→ 直接写入最终的字节数组，不做字符解码。
+ * 字符集在读到开头的数据后确定，真正解码推迟到需要显示响应体时（见HttpResponse.getBody）。
+ * 最多读取maxBytes字节（解压后）；设置了检查器时每次读到新数据都交给它检查，检查器得出结论后立即停止读取。
+ */
+final class ResponseBodyReader {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * 根据响应体开头的内容确定字符集
+     */
+    interface CharsetResolver {
+        Charset resolve(byte[] prefix, int length);
+    }
+
+    private final long maxBytes;
+    private final BodyInspector inspector;
+    private final CharsetResolver charsetResolver;
+    private byte[] data;
+    private int length; // 已读取的字节数（解压后）
+    private boolean truncated; // 因超过上限或解压失败而未读完
+    private boolean earlyTerminated; // 检查器已得出结论，提前停止读取
+    private boolean compressed;
+    private Charset charset;
+
+    ResponseBodyReader(long maxBytes, BodyInspector inspector, CharsetResolver charsetResolver) {
+        this.maxBytes = maxBytes;
+        this.inspector = inspector;
+        this.charsetResolver = charsetResolver;
+    }
+
+    /**
+     * 读取响应体，返回的数组中有效数据为[0, getLength())
+     *
+     * @param contentEncoding Content-Encoding头，支持gzip和deflate
+     */
+    byte[] read(ResponseBody body, String contentEncoding) throws IOException {
+        data = new byte[initialCapacity(body.contentLength())];
+        length = 0;
+        try (InputStream in = open(body, contentEncoding)) {
+            int inspected = 0;
+            while (true) {
+                boolean endOfInput = fill(in) < 0 || truncated;
+                // 先读满嗅探窗口，用响应体开头的内容确定字符集
+                if (charset == null) {
+                    if (!endOfInput && length < CharsetSniffer.SNIFF_LIMIT) {
+                        continue;
+                    }
+                    charset = charsetResolver.resolve(data, length);
+                }
+                if (inspector != null && length > inspected) {
+                    if (inspector.inspect(data, inspected, length, charset)) {
+                        earlyTerminated = !endOfInput && !reachedEnd(in, body.contentLength());
+                        break;
+                    }
+                    inspected = length;
+                }
+                if (endOfInput) {
+                    break;
+                }
+            }
+        }
+        // 内容长度未知时数组按倍数扩容，空闲部分较多时收缩，避免长期持有多余的内存
+        if (data.length - length > BUFFER_SIZE) {
+            data = Arrays.copyOf(data, length);
+        }
+        return data;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    boolean isEarlyTerminated() {
+        return earlyTerminated;
+    }
+
+    // 响应体的字符集，read之后有效
+    Charset getCharset() {
+        return charset;
+    }
+
+    // 返回解压后的输入流；压缩头无效时按未压缩处理
+    private InputStream open(ResponseBody body, String contentEncoding) throws IOException {
+        String encoding = contentEncoding != null ? contentEncoding.trim().toLowerCase() : "";
+        BufferedSource source = body.source();
+        if ("gzip".equals(encoding)) {
+            // gzip魔数为1f 8b
+            if (source.request(2) && source.getBuffer().getByte(0) == (byte) 0x1f
+                    && source.getBuffer().getByte(1) == (byte) 0x8b) {
+                compressed = true;
+                return new GZIPInputStream(source.inputStream());
+            }
+            if (source.getBuffer().size() > 0) {
+                System.err.println("解压缩响应体失败: 无效的gzip头");
+            }
+        } else if ("deflate".equals(encoding) && source.request(2)) {
+            // 标准的deflate是zlib格式，部分服务器直接发送不带zlib头的原始deflate数据
+            int cmf = source.getBuffer().getByte(0) & 0xff;
+            int flg = source.getBuffer().getByte(1) & 0xff;
+            boolean zlibHeader = (cmf & 0x0f) == 8 && (cmf * 256 + flg) % 31 == 0;
+            compressed = true;
+            return new InflaterInputStream(source.inputStream(), new Inflater(!zlibHeader)) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    inf.end();
+                }
+            };
+        }
+        return source.inputStream();
+    }
+
+    // 从流中读取数据追加到数组末尾，遇到流结束返回-1，达到上限时标记为截断
+    private int fill(InputStream in) throws IOException {
+        if (maxBytes > 0 && length >= maxBytes) {
+            return -1;
+        }
+        try {
+            int n;
+            if (length == data.length) {
+                // 数组已满时先探测是否还有数据，内容长度已知的响应不会多扩容一次
+                int b = in.read();
+                if (b < 0) {
+                    return -1;
+                }
+                if (!grow()) {
+                    truncated = true;
+                    return -1;
+                }
+                data[length] = (byte) b;
+                n = 1;
+            } else {
+                int count = data.length - length;
+                if (maxBytes > 0) {
+                    count = (int) Math.min(count, maxBytes - length);
+                }
+                n = in.read(data, length, count);
+                if (n < 0) {
+                    return -1;
+                }
+            }
+            length += n;
+            // 恰好读到上限时再探测一个字节，判断后面是否还有数据
+            if (maxBytes > 0 && length >= maxBytes && in.read() != -1) {
+                truncated = true;
+            }
+            return n;
+        } catch (ZipException | EOFException e) {
+            if (!compressed) {
+                throw e;
+            }
+            // 压缩数据损坏或不完整，保留已解压的部分
+            System.err.println("解压缩响应体失败: " + e.getMessage());
+            truncated = true;
+            return -1;
+        }
+    }
+
+    // 检查器得出结论后判断响应体是否其实已经读完：未压缩且内容长度已知时按Content-Length判断，
+    // 否则（压缩或分块传输）再探测一个字节，确认解压后的流是否已到末尾
+    private boolean reachedEnd(InputStream in, long contentLength) throws IOException {
+        if (!compressed && contentLength >= 0) {
+            return length >= contentLength;
+        }
+        if (maxBytes > 0 && length >= maxBytes) {
+            return true; // fill已在上限处探测过，后面还有数据时已标记为截断
+        }
+        try {
+            return in.read() < 0;
+        } catch (ZipException | EOFException e) {
+            if (!compressed) {
+                throw e;
+            }
+            return false;
+        }
+    }
+
+    private boolean grow() {
+        long capacity = Math.max((long) data.length * 2, BUFFER_SIZE);
+        if (maxBytes > 0) {
+            capacity = Math.min(capacity, maxBytes);
+        }
+        capacity = Math.min(capacity, MAX_ARRAY_SIZE);
+        if (capacity <= data.length) {
+            return false;
+        }
+        data = Arrays.copyOf(data, (int) capacity);
+        return true;
+    }
+
+    private int initialCapacity(long contentLength) {
+        if (contentLength <= 0) {
+            return BUFFER_SIZE;
+        }
+        long capacity = maxBytes > 0 ? Math.min(contentLength, maxBytes) : contentLength;
+        return (int) Math.min(capacity, MAX_ARRAY_SIZE);
+    }
+}
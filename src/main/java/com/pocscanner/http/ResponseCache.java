@@ -0,0 +1,206 @@
+package com.pocscanner.http;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 单次扫描内的GET响应缓存。缓存键由方法、URL和请求中的全部请求头组成，只有指定忽略的请求头（如User-Agent、Accept）
+ * 不同的请求才视为相同，payload放在请求头中的POC（如Origin、Host）不会命中普通请求的缓存。
+ * 响应体保存在堆外内存中，按响应体总大小做LRU淘汰。只缓存完整读取的响应，
+ * 超过读取上限被截断的响应只能供上限不大于它的请求使用。该类是线程安全的。
+ * <p>
+ * 淘汰和clear只释放引用，堆外内存要等GC回收DirectByteBuffer后才归还；JDK在达到-XX:MaxDirectMemorySize时
+ * 会先触发GC再重试分配，仍然失败（例如使用了-XX:+DisableExplicitGC）时该响应不缓存，不影响扫描。
+ */
+public class ResponseCache {
+    private final long maxBytes;
+    private final Set<String> ignoredHeaders; // 不参与缓存键的请求头（小写）
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxBytes       缓存的响应体总大小上限（字节）
+     * @param ignoredHeaders 不参与缓存键的请求头名称，不区分大小写；为null或空时所有请求头都参与
+     */
+    public ResponseCache(long maxBytes, Set<String> ignoredHeaders) {
+        this.maxBytes = maxBytes;
+        Set<String> names = new TreeSet<>();
+        if (ignoredHeaders != null) {
+            for (String name : ignoredHeaders) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        this.ignoredHeaders = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * 返回请求的缓存键，不可缓存的请求（非GET、带请求体、要求新建连接）返回null
+     */
+    public String keyFor(String method, String url, Map<String, String> headers, String body, RequestOptions options) {
+        if (!"GET".equalsIgnoreCase(method) || (body != null && !body.isEmpty())
+                || (options != null && options.isFreshConnection())) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder("GET ").append(url);
+        if (headers != null) {
+            // 请求头名称不区分大小写，按名称排序，与POC中的书写顺序无关
+            Map<String, String> keyHeaders = new TreeMap<>();
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey() == null) {
+                    continue;
+                }
+                String name = header.getKey().trim().toLowerCase(Locale.ROOT);
+                if (!ignoredHeaders.contains(name)) {
+                    keyHeaders.merge(name, String.valueOf(header.getValue()), (a, b) -> a + ", " + b);
+                }
+            }
+            for (Map.Entry<String, String> header : keyHeaders.entrySet()) {
+                key.append('\n').append(header.getKey()).append(": ").append(header.getValue());
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * 查找缓存的响应，每次返回新的HttpResponse对象；未命中或缓存的内容不够完整时返回null
+     *
+     * @param maxBodySize 本次请求的响应体读取上限
+     */
+    public HttpResponse get(String key, long maxBodySize) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null || (entry.truncated && entry.limit < maxBodySize)) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        return entry.toResponse(maxBodySize);
+    }
+
+    /**
+     * 缓存完整读取的响应；提前结束读取的响应和单个就超过缓存上限的响应不缓存
+     *
+     * @param maxBodySize 读取该响应时使用的响应体上限
+     */
+    public void put(String key, HttpResponse response, long maxBodySize) {
+        if (response.getRawBody() == null || response.isEarlyTerminated()
+                || response.getRawBodyLength() > maxBytes) {
+            return;
+        }
+        Entry entry;
+        try {
+            entry = new Entry(response, maxBodySize);
+        } catch (OutOfMemoryError e) {
+            // 堆外内存不足（Direct buffer memory），跳过缓存
+            System.err.println("响应缓存分配堆外内存失败: " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                usedBytes -= previous.size();
+            }
+            usedBytes += entry.size();
+            // 淘汰最久未使用的响应，直到总大小回到上限以内
+            Iterator<Entry> it = entries.values().iterator();
+            while (usedBytes > maxBytes && it.hasNext()) {
+                usedBytes -= it.next().size();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // 缓存的响应：响应体在堆外内存中，其他信息不可变
+    private static final class Entry {
+        private final int statusCode;
+        private final Map<String, List<String>> headers;
+        private final Charset charset;
+        private final String protocol;
+        private final boolean truncated;
+        private final long limit;
+        private final ByteBuffer body;
+        private final String sslProtocol;
+        private final String cipherSuite;
+        private final boolean sslVerified;
+        private final String sslSubject;
+        private final String sslIssuer;
+        private final String sslValidFrom;
+        private final String sslValidTo;
+
+        private Entry(HttpResponse response, long limit) {
+            this.statusCode = response.getStatusCode();
+            this.headers = response.getHeaders();
+            this.charset = response.getCharset();
+            this.protocol = response.getProtocol();
+            this.truncated = response.isBodyTruncated();
+            this.limit = limit;
+            this.body = ByteBuffer.allocateDirect(response.getRawBodyLength());
+            this.body.put(response.getRawBody(), 0, response.getRawBodyLength());
+            this.body.flip();
+            this.sslProtocol = response.getSslProtocol();
+            this.cipherSuite = response.getCipherSuite();
+            this.sslVerified = response.isSslVerified();
+            this.sslSubject = response.getSslSubject();
+            this.sslIssuer = response.getSslIssuer();
+            this.sslValidFrom = response.getSslValidFrom();
+            this.sslValidTo = response.getSslValidTo();
+        }
+
+        private long size() {
+            return body.capacity();
+        }
+
+        // 按本次请求的上限复制响应体，缓存的内容更长时视为被截断
+        private HttpResponse toResponse(long maxBodySize) {
+            int length = (int) Math.min(body.capacity(), maxBodySize);
+            byte[] bytes = new byte[length];
+            body.duplicate().get(bytes, 0, length);
+            HttpResponse response = new HttpResponse(statusCode, bytes, length, charset, headers, 0);
+            response.setProtocol(protocol);
+            response.setBodyTruncated(truncated || length < body.capacity());
+            response.setFromCache(true);
+            response.setSslProtocol(sslProtocol);
+            response.setCipherSuite(cipherSuite);
+            response.setSslVerified(sslVerified);
+            response.setSslSubject(sslSubject);
+            response.setSslIssuer(sslIssuer);
+            response.setSslValidFrom(sslValidFrom);
+            response.setSslValidTo(sslValidTo);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.pocscanner.http;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Headers;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * 记录单个请求各阶段耗时的OkHttp事件监听器，每个请求一个实例；请求结束时计入按主机汇总的统计。
+ * 同一请求的事件按顺序在一个线程中发生，这里不需要同步。
+ */
+final class TimingEventListener extends EventListener {
+    private final RequestTimings timings;
+    private final TimingStats stats;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long tlsStart;
+    private long tlsNanos; // 当前连接的TLS耗时，从连接耗时中扣除
+    private long requestStart;
+    private long bodyStart;
+
+    TimingEventListener(RequestTimings timings, TimingStats stats) {
+        this.timings = timings;
+        this.stats = stats;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        timings.addDnsNanos(System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        tlsNanos = 0;
+        timings.setNewConnection(true);
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        tlsStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsNanos = System.nanoTime() - tlsStart;
+        timings.addTlsNanos(tlsNanos);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        timings.addConnectNanos(System.nanoTime() - connectStart - tlsNanos);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                              IOException ioe) {
+        timings.addConnectNanos(System.nanoTime() - connectStart - tlsNanos);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        timings.addBytesSent(headerBytes(request.headers()));
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        timings.addBytesSent(byteCount);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        timings.addTtfbNanos(System.nanoTime() - requestStart);
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        timings.addBytesReceived(headerBytes(response.headers()));
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        bodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        if (bodyStart != 0) {
+            timings.addBodyNanos(System.nanoTime() - bodyStart);
+        }
+        timings.addBytesReceived(byteCount);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        finish(call, false);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        finish(call, true);
+    }
+
+    // HTTP/1.1格式下请求头或响应头占用的字节数（"名称: 值\r\n"），不含请求行和状态行
+    private static long headerBytes(Headers headers) {
+        long bytes = 0;
+        for (int i = 0; i < headers.size(); i++) {
+            bytes += headers.name(i).length() + headers.value(i).length() + 4;
+        }
+        return bytes;
+    }
+
+    private void finish(Call call, boolean failed) {
+        timings.setTotalNanos(System.nanoTime() - callStart);
+        if (stats != null) {
+            stats.record(call.request().url().host(), timings, failed);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.pocscanner.http;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按主机汇总的请求阶段耗时和收发字节数，可在扫描过程中随时读取，用于调整超时和连接池设置。
+ */
+public class TimingStats {
+    private final ConcurrentHashMap<String, HostTimings> hosts = new ConcurrentHashMap<>();
+
+    void record(String host, RequestTimings timings, boolean failed) {
+        HostTimings stats = hosts.computeIfAbsent(host, HostTimings::new);
+        stats.requests.increment();
+        if (failed) {
+            stats.failures.increment();
+        }
+        if (timings.isNewConnection()) {
+            stats.newConnections.increment();
+        }
+        stats.dnsNanos.add(timings.getDnsNanos());
+        stats.connectNanos.add(timings.getConnectNanos());
+        stats.tlsNanos.add(timings.getTlsNanos());
+        stats.ttfbNanos.add(timings.getTtfbNanos());
+        stats.bodyNanos.add(timings.getBodyNanos());
+        stats.totalNanos.add(timings.getTotalNanos());
+        stats.bytesSent.add(timings.getBytesSent());
+        stats.bytesReceived.add(timings.getBytesReceived());
+    }
+
+    // 各主机的统计，返回的Map不随后续请求变化，其中的计数仍会继续累加
+    public Map<String, HostTimings> getHosts() {
+        return Collections.unmodifiableMap(new HashMap<>(hosts));
+    }
+
+    public void reset() {
+        hosts.clear();
+    }
+
+    /**
+     * 单个主机的累计值，平均耗时按请求数计算（毫秒）
+     */
+    public static class HostTimings {
+        private final String host;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder newConnections = new LongAdder();
+        private final LongAdder dnsNanos = new LongAdder();
+        private final LongAdder connectNanos = new LongAdder();
+        private final LongAdder tlsNanos = new LongAdder();
+        private final LongAdder ttfbNanos = new LongAdder();
+        private final LongAdder bodyNanos = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+
+        private HostTimings(String host) {
+            this.host = host;
+        }
+
+        public String getHost() { return host; }
+        public long getRequests() { return requests.sum(); }
+        public long getFailures() { return failures.sum(); }
+        public long getNewConnections() { return newConnections.sum(); }
+        public long getBytesSent() { return bytesSent.sum(); }
+        public long getBytesReceived() { return bytesReceived.sum(); }
+
+        public double getAvgDnsMillis() { return average(dnsNanos); }
+        public double getAvgConnectMillis() { return average(connectNanos); }
+        public double getAvgTlsMillis() { return average(tlsNanos); }
+        public double getAvgTtfbMillis() { return average(ttfbNanos); }
+        public double getAvgBodyMillis() { return average(bodyNanos); }
+        public double getAvgTotalMillis() { return average(totalNanos); }
+
+        private double average(LongAdder nanos) {
+            long count = requests.sum();
+            return count == 0 ? 0 : nanos.sum() / 1e6 / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: 请求 %d（失败 %d，新建连接 %d），平均 DNS %.1fms，连接 %.1fms，TLS %.1fms，首字节 %.1fms，响应体 %.1fms，总计 %.1fms，发送 %d字节，接收 %d字节",
+                    host, getRequests(), getFailures(), getNewConnections(), getAvgDnsMillis(), getAvgConnectMillis(),
+                    getAvgTlsMillis(), getAvgTtfbMillis(), getAvgBodyMillis(), getAvgTotalMillis(),
+                    getBytesSent(), getBytesReceived());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.pocscanner.jfr;
+
+/**
+ * 事件的实际输出方式。begin方法在事件未启用时返回null，调用方据此跳过字段的计算。
+ */
+interface EventSink {
+    Object beginPocExecute();
+
+    void endPocExecute(Object event, String pocName, int pocCount, String host, long bytes, boolean vulnerable);
+
+    Object beginHttpRequest();
+
+    void endHttpRequest(Object event, String method, String host, int statusCode, long bytes, boolean fromCache);
+
+    Object beginDecode();
+
+    void endDecode(Object event, String charset, long bytes, int chars);
+
+    Object beginMatch();
+
+    void endMatch(Object event, String pocName, String host, String matchType, long bytes, boolean byteLevel,
+                  boolean matched);
+}
@@ -0,0 +1,79 @@
+package com.pocscanner.jfr;
+
+/**
+ * Java Flight Recorder自定义事件：POC执行、HTTP请求、响应体解码和漏洞匹配。
+ * 项目以Java 8为编译目标，事件类在JDK 11+构建时由src/main/java11编译到多版本jar的META-INF/versions/11，
+ * 在Java 11+上从jar运行时才能通过反射加载；否则（Java 8、JDK 8构建或从target/classes运行）所有方法都是空操作。未开启录制时begin方法返回null，调用方应在结果为null时跳过end的参数计算。
+ */
+public final class FlightEvents {
+    private static final String JFR_SINK = "com.pocscanner.jfr.JfrEventSink";
+    private static final EventSink SINK = loadSink();
+
+    private FlightEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return SINK != null;
+    }
+
+    // POCEngine.execute：一次请求及其所有POC的判断，异步模式下包括排队时间
+    public static Object beginPocExecute() {
+        return SINK != null ? SINK.beginPocExecute() : null;
+    }
+
+    public static void endPocExecute(Object event, String pocName, int pocCount, String host, long bytes,
+                                     boolean vulnerable) {
+        if (event != null) {
+            SINK.endPocExecute(event, pocName, pocCount, host, bytes, vulnerable);
+        }
+    }
+
+    // HttpClient.sendRequest：从发出请求到读完响应体
+    public static Object beginHttpRequest() {
+        return SINK != null ? SINK.beginHttpRequest() : null;
+    }
+
+    public static void endHttpRequest(Object event, String method, String host, int statusCode, long bytes,
+                                      boolean fromCache) {
+        if (event != null) {
+            SINK.endHttpRequest(event, method, host, statusCode, bytes, fromCache);
+        }
+    }
+
+    // POCEngine匹配前把响应体按字符集解码为字符串
+    public static Object beginDecode() {
+        return SINK != null ? SINK.beginDecode() : null;
+    }
+
+    public static void endDecode(Object event, String charset, long bytes, int chars) {
+        if (event != null) {
+            SINK.endDecode(event, charset, bytes, chars);
+        }
+    }
+
+    // checkVulnerability：单个POC对响应的判断
+    public static Object beginMatch() {
+        return SINK != null ? SINK.beginMatch() : null;
+    }
+
+    public static void endMatch(Object event, String pocName, String host, String matchType, long bytes,
+                                boolean byteLevel, boolean matched) {
+        if (event != null) {
+            SINK.endMatch(event, pocName, host, matchType, bytes, byteLevel, matched);
+        }
+    }
+
+    private static EventSink loadSink() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (EventSink) Class.forName(JFR_SINK).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException | UnsupportedClassVersionError e) {
+            // JVM不支持JFR或低于JDK 11（8u262+虽然带有jdk.jfr，但无法加载事件类），
+            // 或以JDK 8构建时未编译事件类，或从target/classes运行时不识别META-INF/versions
+            return null;
+        } catch (Exception | LinkageError e) {
+            System.err.println("JFR事件不可用: " + e);
+            return null;
+        }
+    }
+}
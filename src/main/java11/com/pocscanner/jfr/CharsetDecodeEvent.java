@@ -0,0 +1,24 @@
+package com.pocscanner.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.pocscanner.CharsetDecode")
+@Label("响应体解码")
+@Category("POC Scanner")
+@StackTrace(false)
+class CharsetDecodeEvent extends Event {
+    @Label("字符集")
+    String charset;
+
+    @Label("字节数")
+    @DataAmount
+    long bytes;
+
+    @Label("字符数")
+    int chars;
+}
@@ -0,0 +1,32 @@
+package com.pocscanner.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.pocscanner.HttpRequest")
+@Label("HTTP请求")
+@Description("从发出请求到读完响应体，失败的请求状态码为0")
+@Category("POC Scanner")
+@StackTrace(false)
+class HttpRequestEvent extends Event {
+    @Label("方法")
+    String method;
+
+    @Label("主机")
+    String host;
+
+    @Label("状态码")
+    int statusCode;
+
+    @Label("响应体")
+    @DataAmount
+    long bytes;
+
+    @Label("来自缓存")
+    boolean fromCache;
+}
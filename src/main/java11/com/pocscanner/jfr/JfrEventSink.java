@@ -0,0 +1,110 @@
+package com.pocscanner.jfr;
+
+import jdk.jfr.EventType;
+
+/**
+ * 输出JFR事件，只在JDK 11+上由FlightEvents通过反射加载。
+ * 事件未启用或没有正在进行的录制时begin返回null，不创建事件对象。
+ */
+final class JfrEventSink implements EventSink {
+    private static final EventType POC_EXECUTE = EventType.getEventType(PocExecuteEvent.class);
+    private static final EventType HTTP_REQUEST = EventType.getEventType(HttpRequestEvent.class);
+    private static final EventType DECODE = EventType.getEventType(CharsetDecodeEvent.class);
+    private static final EventType MATCH = EventType.getEventType(MatchEvent.class);
+
+    @Override
+    public Object beginPocExecute() {
+        if (!POC_EXECUTE.isEnabled()) {
+            return null;
+        }
+        PocExecuteEvent event = new PocExecuteEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endPocExecute(Object e, String pocName, int pocCount, String host, long bytes, boolean vulnerable) {
+        PocExecuteEvent event = (PocExecuteEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.pocName = pocName;
+            event.pocCount = pocCount;
+            event.host = host;
+            event.bytes = bytes;
+            event.vulnerable = vulnerable;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginHttpRequest() {
+        if (!HTTP_REQUEST.isEnabled()) {
+            return null;
+        }
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endHttpRequest(Object e, String method, String host, int statusCode, long bytes, boolean fromCache) {
+        HttpRequestEvent event = (HttpRequestEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.host = host;
+            event.statusCode = statusCode;
+            event.bytes = bytes;
+            event.fromCache = fromCache;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginDecode() {
+        if (!DECODE.isEnabled()) {
+            return null;
+        }
+        CharsetDecodeEvent event = new CharsetDecodeEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endDecode(Object e, String charset, long bytes, int chars) {
+        CharsetDecodeEvent event = (CharsetDecodeEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.charset = charset;
+            event.bytes = bytes;
+            event.chars = chars;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginMatch() {
+        if (!MATCH.isEnabled()) {
+            return null;
+        }
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endMatch(Object e, String pocName, String host, String matchType, long bytes, boolean byteLevel,
+                         boolean matched) {
+        MatchEvent event = (MatchEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.pocName = pocName;
+            event.host = host;
+            event.matchType = matchType;
+            event.bytes = bytes;
+            event.byteLevel = byteLevel;
+            event.matched = matched;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.pocscanner.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.pocscanner.Match")
+@Label("漏洞匹配")
+@Description("单个POC对响应的判断（checkVulnerability），字节级匹配已得出结论时不再解码响应体")
+@Category("POC Scanner")
+@StackTrace(false)
+class MatchEvent extends Event {
+    @Label("POC")
+    String pocName;
+
+    @Label("主机")
+    String host;
+
+    @Label("匹配类型")
+    String matchType;
+
+    @Label("响应体")
+    @DataAmount
+    long bytes;
+
+    @Label("字节级匹配")
+    boolean byteLevel;
+
+    @Label("命中")
+    boolean matched;
+}
@@ -0,0 +1,32 @@
+package com.pocscanner.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.pocscanner.PocExecute")
+@Label("POC执行")
+@Description("发送一次请求并完成其中所有POC的判断，合并的请求记录第一个POC的名称和POC数量")
+@Category("POC Scanner")
+@StackTrace(false)
+class PocExecuteEvent extends Event {
+    @Label("POC")
+    String pocName;
+
+    @Label("POC数量")
+    int pocCount;
+
+    @Label("主机")
+    String host;
+
+    @Label("响应体")
+    @DataAmount
+    long bytes;
+
+    @Label("存在漏洞")
+    boolean vulnerable;
+}